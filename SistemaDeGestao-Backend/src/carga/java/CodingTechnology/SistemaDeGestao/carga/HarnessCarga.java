@@ -0,0 +1,339 @@
+package CodingTechnology.SistemaDeGestao.carga;
+
+import CodingTechnology.SistemaDeGestao.GestaoApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+// Teste de carga HTTP ponta a ponta: sobe a aplicação no perfil "carga" (H2 em modo MySQL), popula
+// o banco e dispara clientes em virtual threads contra os endpoints reais, com concorrência e mix
+// configuráveis. Ao final imprime throughput e latências p50/p95/p99 por endpoint e grava o JSON.
+// carga.perfis acrescenta perfis ao "carga": rodar com e sem "virtual" compara os modos de execução.
+//
+//   mvn -Pcarga test-compile exec:java -Dcarga.concorrencia=128 -Dcarga.duracao-segundos=120 \
+//       -Dcarga.mix=login=1,produtos=1,calculo=4,producao=2,dashboard=4
+//   mvn -Pcarga test-compile exec:java -Dcarga.concorrencia=400 -Dcarga.perfis=virtual \
+//       -Dcarga.resultado=target/carga-virtual.json
+public final class HarnessCarga {
+
+    private static final Logger log = LoggerFactory.getLogger(HarnessCarga.class);
+
+    private static final String USUARIO = "UserAdmin";
+    private static final String SENHA = "Master@123";
+
+    private HarnessCarga() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Configuracao configuracao = Configuracao.doSistema();
+
+        ConfigurableApplicationContext contexto = new SpringApplicationBuilder(GestaoApplication.class)
+                .profiles(configuracao.perfisAtivos())
+                .run(args);
+        try {
+            int porta = contexto.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            SementeDados.Dataset dataset = new SementeDados(contexto).popular(configuracao.produtos(),
+                    configuracao.receitas(), configuracao.producoes());
+
+            Map<String, Estatisticas> resultado = executar(configuracao, "http://localhost:" + porta, dataset);
+            imprimir(configuracao, resultado);
+            gravar(configuracao, resultado);
+        } finally {
+            contexto.close();
+        }
+    }
+
+    record Configuracao(int produtos, int receitas, int producoes, int concorrencia, int aquecimentoSegundos,
+            int duracaoSegundos, Map<String, Integer> mix, List<String> perfis, Path resultado) {
+
+        static Configuracao doSistema() {
+            return new Configuracao(
+                    Integer.getInteger("carga.produtos", 50_000),
+                    Integer.getInteger("carga.receitas", 2_000),
+                    Integer.getInteger("carga.producoes", 500_000),
+                    Integer.getInteger("carga.concorrencia", 64),
+                    Integer.getInteger("carga.aquecimento-segundos", 15),
+                    Integer.getInteger("carga.duracao-segundos", 60),
+                    lerMix(System.getProperty("carga.mix", "login=1,produtos=1,calculo=4,producao=2,dashboard=4")),
+                    lerPerfis(System.getProperty("carga.perfis", "")),
+                    Path.of(System.getProperty("carga.resultado", "target/carga-resultado.json")));
+        }
+
+        // "carga" vem primeiro para que os perfis adicionais sobrescrevam suas propriedades
+        String[] perfisAtivos() {
+            List<String> ativos = new ArrayList<>();
+            ativos.add("carga");
+            ativos.addAll(perfis);
+            return ativos.toArray(String[]::new);
+        }
+
+        private static List<String> lerPerfis(String valor) {
+            List<String> perfis = new ArrayList<>();
+            for (String parte : valor.split(",")) {
+                if (!parte.isBlank() && !"carga".equals(parte.trim())) {
+                    perfis.add(parte.trim());
+                }
+            }
+            return perfis;
+        }
+
+        private static Map<String, Integer> lerMix(String valor) {
+            Map<String, Integer> mix = new LinkedHashMap<>();
+            for (String parte : valor.split(",")) {
+                String[] chaveValor = parte.trim().split("=");
+                if (chaveValor.length != 2) {
+                    throw new IllegalArgumentException("Mix inválido: " + valor);
+                }
+                int peso = Integer.parseInt(chaveValor[1].trim());
+                if (peso > 0) {
+                    mix.put(chaveValor[0].trim(), peso);
+                }
+            }
+            return mix;
+        }
+    }
+
+    // Latências e status de um endpoint, só da janela de medição
+    static final class Estatisticas {
+        private final HistogramaLatencia latencias = new HistogramaLatencia();
+        private final Map<Integer, LongAdder> status = new ConcurrentHashMap<>();
+        private final LongAdder falhas = new LongAdder();
+
+        void registrar(int codigo, long micros) {
+            latencias.registrar(micros);
+            status.computeIfAbsent(codigo, c -> new LongAdder()).increment();
+            if (codigo < 200 || codigo >= 300) {
+                falhas.increment();
+            }
+        }
+    }
+
+    private record Operacao(String nome, Function<Cliente, HttpRequest> requisicao) {
+    }
+
+    // Estado de um cliente (virtual thread): token próprio e gerador de números próprio
+    private static final class Cliente {
+        private final String base;
+        private final SementeDados.Dataset dataset;
+        private final SplittableRandom aleatorio;
+        private String token;
+
+        private Cliente(String base, SementeDados.Dataset dataset, long semente) {
+            this.base = base;
+            this.dataset = dataset;
+            this.aleatorio = new SplittableRandom(semente);
+        }
+
+        private HttpRequest.Builder get(String caminho) {
+            return HttpRequest.newBuilder(URI.create(base + caminho))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Authorization", "Bearer " + token)
+                    .GET();
+        }
+
+        private HttpRequest.Builder post(String caminho, String json, boolean autenticado) {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(base + caminho))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(json));
+            if (autenticado) {
+                builder.header("Authorization", "Bearer " + token);
+            }
+            return builder;
+        }
+
+        private long receitaAleatoria() {
+            return dataset.idsReceitas()[aleatorio.nextInt(dataset.idsReceitas().length)];
+        }
+
+        private long produtoAleatorio() {
+            return dataset.idsProdutos()[aleatorio.nextInt(dataset.idsProdutos().length)];
+        }
+    }
+
+    private static List<Operacao> operacoes(Map<String, Integer> mix) {
+        Map<String, Operacao> disponiveis = new LinkedHashMap<>();
+        disponiveis.put("login", new Operacao("POST /api/auth/login", cliente -> cliente.post("/api/auth/login",
+                "{\"username\":\"" + USUARIO + "\",\"password\":\"" + SENHA + "\"}", false).build()));
+        disponiveis.put("produtos", new Operacao("GET /api/products/list",
+                cliente -> cliente.get("/api/products/list").build()));
+        disponiveis.put("calculo", new Operacao("POST /api/receitas/calcular-custo", cliente -> {
+            StringBuilder json = new StringBuilder("{\"margemLucro\":40,\"ingredientes\":[");
+            for (int i = 0; i < 8; i++) {
+                if (i > 0) {
+                    json.append(',');
+                }
+                json.append("{\"produtoId\":").append(cliente.produtoAleatorio())
+                        .append(",\"quantidade\":").append(1 + cliente.aleatorio.nextInt(500) / 100.0)
+                        .append(",\"unidadeMedida\":\"G\"}");
+            }
+            json.append("]}");
+            return cliente.post("/api/receitas/calcular-custo", json.toString(), true).build();
+        }));
+        disponiveis.put("producao", new Operacao("POST /api/producoes/registrar",
+                cliente -> cliente.post("/api/producoes/registrar", "{\"receita\":{\"id\":"
+                        + cliente.receitaAleatoria() + "},\"quantidadeLotes\":1,\"quantidadeProduzida\":10}", true)
+                        .build()));
+        disponiveis.put("dashboard", new Operacao("GET /api/dashboard/stats",
+                cliente -> cliente.get("/api/dashboard/stats").build()));
+
+        List<Operacao> sorteio = new ArrayList<>();
+        mix.forEach((chave, peso) -> {
+            Operacao operacao = disponiveis.get(chave);
+            if (operacao == null) {
+                throw new IllegalArgumentException("Operação desconhecida no mix: " + chave
+                        + " (disponíveis: " + disponiveis.keySet() + ")");
+            }
+            for (int i = 0; i < peso; i++) {
+                sorteio.add(operacao);
+            }
+        });
+        if (sorteio.isEmpty()) {
+            throw new IllegalArgumentException("O mix não tem nenhuma operação com peso positivo.");
+        }
+        return sorteio;
+    }
+
+    private static Map<String, Estatisticas> executar(Configuracao configuracao, String base,
+            SementeDados.Dataset dataset) throws InterruptedException {
+        List<Operacao> sorteio = operacoes(configuracao.mix());
+        Map<String, Estatisticas> estatisticas = new LinkedHashMap<>();
+        sorteio.forEach(operacao -> estatisticas.putIfAbsent(operacao.nome(), new Estatisticas()));
+
+        HttpClient http = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        ObjectMapper json = new ObjectMapper();
+
+        long inicio = System.nanoTime();
+        long inicioMedicao = inicio + TimeUnit.SECONDS.toNanos(configuracao.aquecimentoSegundos());
+        long fim = inicioMedicao + TimeUnit.SECONDS.toNanos(configuracao.duracaoSegundos());
+        log.info("Carga: {} clientes, {} s de aquecimento, {} s de medição, mix {}, perfis {}",
+                configuracao.concorrencia(), configuracao.aquecimentoSegundos(), configuracao.duracaoSegundos(),
+                configuracao.mix(), List.of(configuracao.perfisAtivos()));
+
+        List<Thread> clientes = new ArrayList<>();
+        for (int c = 0; c < configuracao.concorrencia(); c++) {
+            Cliente cliente = new Cliente(base, dataset, 1_000L + c);
+            clientes.add(Thread.ofVirtual().name("carga-cliente-" + c).start(() -> {
+                try {
+                    cliente.token = login(http, json, cliente);
+                    while (System.nanoTime() < fim) {
+                        Operacao operacao = sorteio.get(cliente.aleatorio.nextInt(sorteio.size()));
+                        HttpRequest requisicao = operacao.requisicao().apply(cliente);
+                        long antes = System.nanoTime();
+                        int codigo;
+                        try {
+                            codigo = http.send(requisicao, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        } catch (IOException e) {
+                            codigo = 0;
+                        }
+                        long depois = System.nanoTime();
+                        if (antes >= inicioMedicao && depois <= fim) {
+                            estatisticas.get(operacao.nome()).registrar(codigo, (depois - antes) / 1_000);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Exception e) {
+                    log.warn("Cliente de carga encerrado: {}", e.getMessage());
+                }
+            }));
+        }
+        for (Thread cliente : clientes) {
+            cliente.join();
+        }
+        return estatisticas;
+    }
+
+    // Token inicial do cliente; repete enquanto o executor de login estiver saturado (503)
+    private static String login(HttpClient http, ObjectMapper json, Cliente cliente) throws Exception {
+        HttpRequest requisicao = cliente.post("/api/auth/login",
+                "{\"username\":\"" + USUARIO + "\",\"password\":\"" + SENHA + "\"}", false).build();
+        for (int tentativa = 0; tentativa < 100; tentativa++) {
+            HttpResponse<String> resposta = http.send(requisicao, HttpResponse.BodyHandlers.ofString());
+            if (resposta.statusCode() == 200) {
+                JsonNode corpo = json.readTree(resposta.body());
+                return corpo.get("token").asText();
+            }
+            Thread.sleep(100 + cliente.aleatorio.nextInt(400));
+        }
+        throw new IllegalStateException("Não foi possível autenticar o cliente de carga");
+    }
+
+    private static void imprimir(Configuracao configuracao, Map<String, Estatisticas> resultado) {
+        double segundos = configuracao.duracaoSegundos();
+        StringBuilder relatorio = new StringBuilder();
+        relatorio.append(String.format("%nPerfis: %s%n", List.of(configuracao.perfisAtivos())));
+        relatorio.append(String.format("%-36s %10s %10s %8s %10s %10s %10s %10s%n", "endpoint", "requisições",
+                "req/s", "falhas", "média ms", "p50 ms", "p95 ms", "p99 ms"));
+        resultado.forEach((nome, estatisticas) -> {
+            HistogramaLatencia latencias = estatisticas.latencias;
+            relatorio.append(String.format("%-36s %10d %10.1f %8d %10.2f %10.2f %10.2f %10.2f%n", nome,
+                    latencias.total(), latencias.total() / segundos, estatisticas.falhas.sum(),
+                    latencias.media() / 1_000.0, latencias.percentil(50) / 1_000.0,
+                    latencias.percentil(95) / 1_000.0, latencias.percentil(99) / 1_000.0));
+        });
+        System.out.println(relatorio);
+    }
+
+    private static void gravar(Configuracao configuracao, Map<String, Estatisticas> resultado) throws IOException {
+        Map<String, Object> saida = new LinkedHashMap<>();
+        saida.put("produtos", configuracao.produtos());
+        saida.put("receitas", configuracao.receitas());
+        saida.put("producoes", configuracao.producoes());
+        saida.put("concorrencia", configuracao.concorrencia());
+        saida.put("duracaoSegundos", configuracao.duracaoSegundos());
+        saida.put("mix", configuracao.mix());
+        saida.put("perfis", List.of(configuracao.perfisAtivos()));
+
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        resultado.forEach((nome, estatisticas) -> {
+            HistogramaLatencia latencias = estatisticas.latencias;
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("requisicoes", latencias.total());
+            item.put("throughput", latencias.total() / (double) configuracao.duracaoSegundos());
+            item.put("falhas", estatisticas.falhas.sum());
+            Map<Integer, Long> status = new LinkedHashMap<>();
+            estatisticas.status.forEach((codigo, contador) -> status.put(codigo, contador.sum()));
+            item.put("status", status);
+            item.put("mediaMs", latencias.media() / 1_000.0);
+            item.put("p50Ms", latencias.percentil(50) / 1_000.0);
+            item.put("p95Ms", latencias.percentil(95) / 1_000.0);
+            item.put("p99Ms", latencias.percentil(99) / 1_000.0);
+            endpoints.put(nome, item);
+        });
+        saida.put("endpoints", endpoints);
+
+        Path arquivo = configuracao.resultado();
+        if (arquivo.getParent() != null) {
+            Files.createDirectories(arquivo.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(arquivo.toFile(), saida);
+        log.info("Resultado gravado em {}", arquivo.toAbsolutePath());
+    }
+}
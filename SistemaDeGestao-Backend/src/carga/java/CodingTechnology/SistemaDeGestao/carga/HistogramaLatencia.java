@@ -0,0 +1,69 @@
+package CodingTechnology.SistemaDeGestao.carga;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Histograma log-linear de latências em microssegundos, seguro para gravação concorrente sem travas.
+// Cada potência de dois é dividida em 32 faixas: erro relativo de no máximo ~3% nos percentis.
+final class HistogramaLatencia {
+
+    private static final int SUBFAIXAS_BITS = 5;
+    private static final int SUBFAIXAS = 1 << SUBFAIXAS_BITS;
+    private static final int FAIXAS = (64 - SUBFAIXAS_BITS + 1) * SUBFAIXAS;
+
+    private final AtomicLongArray contagens = new AtomicLongArray(FAIXAS);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder soma = new LongAdder();
+
+    void registrar(long micros) {
+        long valor = Math.max(0, micros);
+        contagens.incrementAndGet(indice(valor));
+        total.increment();
+        soma.add(valor);
+    }
+
+    long total() {
+        return total.sum();
+    }
+
+    double media() {
+        long n = total.sum();
+        return n == 0 ? 0.0 : (double) soma.sum() / n;
+    }
+
+    // Limite superior da faixa que contém o percentil (0..100)
+    long percentil(double percentil) {
+        long n = total.sum();
+        if (n == 0) {
+            return 0;
+        }
+        long alvo = Math.max(1, (long) Math.ceil(n * percentil / 100.0));
+        long acumulado = 0;
+        for (int i = 0; i < FAIXAS; i++) {
+            acumulado += contagens.get(i);
+            if (acumulado >= alvo) {
+                return limiteSuperior(i);
+            }
+        }
+        return limiteSuperior(FAIXAS - 1);
+    }
+
+    private static int indice(long valor) {
+        if (valor < SUBFAIXAS) {
+            return (int) valor;
+        }
+        // Desloca até restarem os 6 bits mais altos (32..63): o deslocamento é a "potência", o resto a subfaixa
+        int deslocamento = 63 - Long.numberOfLeadingZeros(valor) - SUBFAIXAS_BITS;
+        int sub = (int) (valor >>> deslocamento) - SUBFAIXAS;
+        return (deslocamento + 1) * SUBFAIXAS + sub;
+    }
+
+    private static long limiteSuperior(int indice) {
+        if (indice < SUBFAIXAS) {
+            return indice;
+        }
+        int deslocamento = indice / SUBFAIXAS - 1;
+        int sub = indice % SUBFAIXAS;
+        return (((long) SUBFAIXAS + sub + 1) << deslocamento) - 1;
+    }
+}
@@ -0,0 +1,174 @@
+package CodingTechnology.SistemaDeGestao.carga;
+
+import CodingTechnology.SistemaDeGestao.Produtos.model.enums.UnidadeMedida;
+import CodingTechnology.SistemaDeGestao.Produtos.service.PrevisaoConsumoService;
+import CodingTechnology.SistemaDeGestao.dashboard.service.AnaliseProducaoService;
+import CodingTechnology.SistemaDeGestao.producao.service.ProducaoResumoService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Popula o H2 com um volume realista por JDBC em lotes e reconstrói os dados derivados
+// (resumos diários, análise em memória e previsão de consumo) como após um início normal
+final class SementeDados {
+
+    private static final Logger log = LoggerFactory.getLogger(SementeDados.class);
+
+    private static final int LOTE_INSERCAO = 5_000;
+    private static final int INGREDIENTES_POR_RECEITA = 8;
+    private static final int DIAS_HISTORICO = 730;
+    private static final UnidadeMedida[] UNIDADES = UnidadeMedida.values();
+
+    private final ApplicationContext contexto;
+    private final JdbcTemplate jdbcTemplate;
+    private final SplittableRandom aleatorio = new SplittableRandom(42);
+
+    SementeDados(ApplicationContext contexto) {
+        this.contexto = contexto;
+        this.jdbcTemplate = contexto.getBean(JdbcTemplate.class);
+    }
+
+    // Devolve os ids das receitas e dos produtos criados, usados para montar as requisições
+    Dataset popular(int produtos, int receitas, int producoes) {
+        long inicio = System.currentTimeMillis();
+
+        inserirProdutos(produtos);
+        long[] idsProdutos = ids("products");
+
+        inserirReceitas(receitas);
+        long[] idsReceitas = ids("receitas");
+        inserirIngredientes(idsReceitas, idsProdutos);
+
+        inserirProducoes(producoes, idsReceitas);
+        inserirConsumos();
+
+        log.info("Dados inseridos em {} ms: {} produtos, {} receitas, {} produções",
+                System.currentTimeMillis() - inicio, idsProdutos.length, idsReceitas.length, producoes);
+
+        contexto.getBean(ProducaoResumoService.class).reconstruir();
+        contexto.getBean(AnaliseProducaoService.class).carregar();
+        recalcularPrevisao();
+
+        log.info("Dados derivados reconstruídos; semeadura concluída em {} ms", System.currentTimeMillis() - inicio);
+        return new Dataset(idsProdutos, idsReceitas);
+    }
+
+    record Dataset(long[] idsProdutos, long[] idsReceitas) {
+    }
+
+    private void inserirProdutos(int quantidade) {
+        String sql = "INSERT INTO products (nome, unidade_medida, quantidade_inicial, quantidade_atual, "
+                + "preco_compra, preco_venda, peso_por_unidade) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        List<Object[]> linhas = new ArrayList<>(LOTE_INSERCAO);
+        for (int i = 1; i <= quantidade; i++) {
+            UnidadeMedida unidade = UNIDADES[i % UNIDADES.length];
+            double preco = 0.5 + aleatorio.nextDouble() * 80;
+            linhas.add(new Object[] {
+                    "Produto " + i,
+                    unidade.name(),
+                    1.0e9,
+                    1.0e9,
+                    preco,
+                    preco * 1.6,
+                    unidade == UnidadeMedida.UN ? 0.25 + aleatorio.nextDouble() : null });
+            linhas = descarregar(sql, linhas, i == quantidade);
+        }
+    }
+
+    private void inserirReceitas(int quantidade) {
+        String sql = "INSERT INTO receitas (nome, descricao, quantidade_padrao_produzida, preco_venda_sugerido, "
+                + "margem_lucro, em_reparticao, quantidade_partes, preco_por_parte, data_criacao, data_atualizacao) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        Timestamp agora = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> linhas = new ArrayList<>(LOTE_INSERCAO);
+        for (int i = 1; i <= quantidade; i++) {
+            double preco = 20 + aleatorio.nextDouble() * 200;
+            linhas.add(new Object[] { "Receita " + i, "Receita gerada para teste de carga", 10, preco, 50.0,
+                    Boolean.FALSE, null, null, agora, agora });
+            linhas = descarregar(sql, linhas, i == quantidade);
+        }
+    }
+
+    private void inserirIngredientes(long[] idsReceitas, long[] idsProdutos) {
+        String sql = "INSERT INTO ingredientes_da_receita (receita_id, produto_id, quantidade_necessaria, "
+                + "unidade_medida) VALUES (?, ?, ?, ?)";
+        List<Object[]> linhas = new ArrayList<>(LOTE_INSERCAO);
+        for (int r = 0; r < idsReceitas.length; r++) {
+            for (int i = 0; i < INGREDIENTES_POR_RECEITA; i++) {
+                long produtoId = idsProdutos[aleatorio.nextInt(idsProdutos.length)];
+                linhas.add(new Object[] { idsReceitas[r], produtoId, 0.05 + aleatorio.nextDouble() * 2,
+                        UNIDADES[aleatorio.nextInt(UNIDADES.length)].name() });
+            }
+            linhas = descarregar(sql, linhas, r == idsReceitas.length - 1);
+        }
+    }
+
+    private void inserirProducoes(int quantidade, long[] idsReceitas) {
+        String sql = "INSERT INTO producoes (receita_id, quantidade_produzida, quantidade_lotes, custo_total, "
+                + "lucro_estimado, data_producao, estoque_descontado) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        LocalDateTime inicioHistorico = LocalDateTime.now().minusDays(DIAS_HISTORICO);
+        long segundosHistorico = DIAS_HISTORICO * 86_400L;
+        List<Object[]> linhas = new ArrayList<>(LOTE_INSERCAO);
+        for (int i = 1; i <= quantidade; i++) {
+            int lotes = 1 + aleatorio.nextInt(5);
+            double custo = lotes * (10 + aleatorio.nextDouble() * 90);
+            linhas.add(new Object[] {
+                    idsReceitas[aleatorio.nextInt(idsReceitas.length)],
+                    lotes * 10,
+                    lotes,
+                    custo,
+                    custo * 0.5,
+                    Timestamp.valueOf(inicioHistorico.plusSeconds(aleatorio.nextLong(segundosHistorico))),
+                    Boolean.TRUE });
+            linhas = descarregar(sql, linhas, i == quantidade);
+        }
+    }
+
+    // Consumo gravado de cada produção a partir da composição da receita, como o registro faria
+    // (sem conversão de unidade: os dados são sintéticos)
+    private void inserirConsumos() {
+        jdbcTemplate.update("INSERT INTO producao_consumos (producao_id, produto_id, quantidade) "
+                + "SELECT p.id, i.produto_id, SUM(i.quantidade_necessaria * p.quantidade_lotes) "
+                + "FROM producoes p JOIN ingredientes_da_receita i ON i.receita_id = p.receita_id "
+                + "GROUP BY p.id, i.produto_id");
+    }
+
+    private List<Object[]> descarregar(String sql, List<Object[]> linhas, boolean ultimo) {
+        if (linhas.size() >= LOTE_INSERCAO || (ultimo && !linhas.isEmpty())) {
+            jdbcTemplate.batchUpdate(sql, linhas);
+            return new ArrayList<>(LOTE_INSERCAO);
+        }
+        return linhas;
+    }
+
+    private long[] ids(String tabela) {
+        return jdbcTemplate.queryForList("SELECT id FROM " + tabela + " ORDER BY id", Long.class)
+                .stream().mapToLong(Long::longValue).toArray();
+    }
+
+    // A previsão pode estar sendo calculada pelo início da aplicação; espera e tenta de novo
+    private void recalcularPrevisao() {
+        PrevisaoConsumoService previsao = contexto.getBean(PrevisaoConsumoService.class);
+        for (int tentativa = 0; tentativa < 60; tentativa++) {
+            try {
+                previsao.recalcular();
+                return;
+            } catch (IllegalStateException e) {
+                try {
+                    Thread.sleep(1_000);
+                } catch (InterruptedException interrompido) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+        log.warn("Previsão de consumo não recalculada após a semeadura");
+    }
+}
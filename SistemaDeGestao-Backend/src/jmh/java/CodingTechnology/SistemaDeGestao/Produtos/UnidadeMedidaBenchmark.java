@@ -0,0 +1,41 @@
+package CodingTechnology.SistemaDeGestao.Produtos;
+
+import CodingTechnology.SistemaDeGestao.Produtos.model.enums.UnidadeMedida;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+// UnidadeMedida.converterPara em todos os pares origem x destino (36 conversões por invocação)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UnidadeMedidaBenchmark {
+
+    private static final UnidadeMedida[] UNIDADES = UnidadeMedida.values();
+    private static final int PARES = UNIDADES.length * UNIDADES.length;
+
+    private double valor = 1.75;
+
+    @Benchmark
+    @OperationsPerInvocation(PARES)
+    public void todosOsPares(Blackhole blackhole) {
+        for (UnidadeMedida origem : UNIDADES) {
+            for (UnidadeMedida destino : UNIDADES) {
+                blackhole.consume(origem.converterPara(destino, valor));
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package CodingTechnology.SistemaDeGestao.auth;
+
+import CodingTechnology.SistemaDeGestao.auth.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import javax.crypto.SecretKey;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Custo de CPU da autenticação JWT por requisição: fluxo antigo (três parses, parser e chave
+// recriados a cada chamada) x verify() sem cache x verify() com cache de tokens verificados,
+// e a emissão de tokens no login.
+// Várias threads sobre as mesmas instâncias, como o filtro sob carga: mede também a contenção no cache.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class JwtServiceBenchmark {
+
+    private static final String SECRET_KEY = "NDA0RTYzNTI2NjU1NkE1ODZFMzI3MjM1NzUzODc4MkY0MTNGNDQyODQ3MkI0QjYyNTA2NDUzNjc1NjZCNTk3MA==";
+    private static final long EXPIRATION = 3_600_000L;
+
+    private JwtService semCache;
+    private JwtService comCache;
+    private UserDetails usuario;
+    private String token;
+
+    @Setup
+    public void setup() {
+        semCache = new JwtService(SECRET_KEY, EXPIRATION, 0);
+        comCache = new JwtService(SECRET_KEY, EXPIRATION, 10_000);
+        usuario = User.withUsername("admin")
+                .password("x")
+                .authorities(List.of(new SimpleGrantedAuthority("ROLE_ADMIN")))
+                .build();
+        token = semCache.generateToken(usuario);
+    }
+
+    // Reproduz o fluxo anterior do filtro: extractUsername + isTokenValid (username e expiração)
+    @Benchmark
+    public boolean fluxoAnterior() {
+        String username = parseLegado(token).getSubject();
+        boolean valido = parseLegado(token).getSubject().equals(usuario.getUsername())
+                && !parseLegado(token).getExpiration().before(new Date());
+        return valido && username != null;
+    }
+
+    @Benchmark
+    public boolean verifySemCache() {
+        JwtService.TokenVerificado verificado = semCache.verify(token);
+        return verificado.username().equals(usuario.getUsername()) && !verificado.expirado();
+    }
+
+    @Benchmark
+    public boolean verifyComCache() {
+        JwtService.TokenVerificado verificado = comCache.verify(token);
+        return verificado.username().equals(usuario.getUsername()) && !verificado.expirado();
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return comCache.generateToken(usuario);
+    }
+
+    private static Claims parseLegado(String token) {
+        SecretKey chave = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_KEY));
+        return Jwts.parser().verifyWith(chave).build().parseSignedClaims(token).getPayload();
+    }
+}
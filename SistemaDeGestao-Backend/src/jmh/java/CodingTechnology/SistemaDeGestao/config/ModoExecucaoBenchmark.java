@@ -0,0 +1,126 @@
+package CodingTechnology.SistemaDeGestao.config;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Mesma carga nos dois modos de execução: 400 clientes simultâneos, 20% das requisições consultam o
+// banco por um pool Hikari de 20 conexões (configuração do perfil virtual) e o restante é só CPU.
+// "plataforma" reproduz o pool padrão do Tomcat (200 threads) com o Hikari direto; "virtual" usa uma
+// virtual thread por requisição e o LimiteConexoesDataSource na frente do mesmo pool, como o perfil
+// faz. O banco é H2 em memória: a consulta é real, e os 10 ms de ida e volta ao MySQL são somados com
+// a conexão emprestada. Throughput em ops/ms e, no modo SampleTime, p50/p99/p99.9.
+// A comparação ponta a ponta (Tomcat, Spring, JPA) é o harness de carga com e sem -Dcarga.perfis=virtual.
+//   mvn -Pbenchmark test-compile exec:exec -Djmh.includes=ModoExecucaoBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(400)
+@Fork(1)
+public class ModoExecucaoBenchmark {
+
+    private static final int THREADS_TOMCAT = 200;
+    private static final int CONEXOES_BANCO = 20;
+    private static final long ESPERA_CONEXAO_MS = 5_000;
+    private static final long LATENCIA_BANCO_MS = 10;
+    private static final double FRACAO_BANCO = 0.2;
+    private static final int PRODUTOS = 1_000;
+
+    @Param({ "plataforma", "virtual" })
+    public String modo;
+
+    private ExecutorService executor;
+    private HikariDataSource pool;
+    private DataSource dataSource;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:modo-execucao-" + modo + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        config.setUsername("sa");
+        config.setPassword("");
+        config.setMaximumPoolSize(CONEXOES_BANCO);
+        config.setMinimumIdle(CONEXOES_BANCO);
+        config.setConnectionTimeout(ESPERA_CONEXAO_MS);
+        pool = new HikariDataSource(config);
+        popular();
+
+        boolean virtual = "virtual".equals(modo);
+        dataSource = virtual ? new LimiteConexoesDataSource(pool, CONEXOES_BANCO, ESPERA_CONEXAO_MS) : pool;
+        executor = virtual ? Executors.newVirtualThreadPerTaskExecutor() : Executors.newFixedThreadPool(THREADS_TOMCAT);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+        pool.close();
+    }
+
+    @Benchmark
+    public void requisicao(Blackhole blackhole) throws Exception {
+        boolean usaBanco = ThreadLocalRandom.current().nextDouble() < FRACAO_BANCO;
+        blackhole.consume(executor.submit(() -> atender(usaBanco)).get());
+    }
+
+    private long atender(boolean usaBanco) throws SQLException, InterruptedException {
+        long acumulado = 0;
+        if (usaBanco) {
+            acumulado = consultar(ThreadLocalRandom.current().nextInt(PRODUTOS) + 1);
+        }
+        // Serialização da resposta e demais trabalhos de CPU da requisição
+        for (int i = 0; i < 2_000; i++) {
+            acumulado += Long.rotateLeft(acumulado ^ i, 7) * 31;
+        }
+        return acumulado;
+    }
+
+    private long consultar(long id) throws SQLException, InterruptedException {
+        try (Connection conexao = dataSource.getConnection();
+                PreparedStatement consulta = conexao.prepareStatement("SELECT quantidade FROM produtos WHERE id = ?")) {
+            consulta.setLong(1, id);
+            long quantidade;
+            try (ResultSet linhas = consulta.executeQuery()) {
+                quantidade = linhas.next() ? linhas.getLong(1) : 0;
+            }
+            // Ida e volta ao banco real, com a conexão ainda emprestada
+            Thread.sleep(LATENCIA_BANCO_MS);
+            return quantidade;
+        }
+    }
+
+    private void popular() throws SQLException {
+        try (Connection conexao = pool.getConnection(); Statement comando = conexao.createStatement()) {
+            comando.execute("DROP TABLE IF EXISTS produtos");
+            comando.execute("CREATE TABLE produtos (id BIGINT PRIMARY KEY, quantidade BIGINT NOT NULL)");
+            comando.execute("INSERT INTO produtos SELECT X, X * 3 FROM SYSTEM_RANGE(1, " + PRODUTOS + ")");
+        }
+    }
+}
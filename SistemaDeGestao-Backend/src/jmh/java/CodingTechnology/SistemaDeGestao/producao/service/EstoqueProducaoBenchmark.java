@@ -0,0 +1,79 @@
+package CodingTechnology.SistemaDeGestao.producao.service;
+
+import CodingTechnology.SistemaDeGestao.Produtos.model.entities.Product;
+import CodingTechnology.SistemaDeGestao.Produtos.model.enums.UnidadeMedida;
+import CodingTechnology.SistemaDeGestao.receita.model.entities.IngredienteDaReceita;
+import CodingTechnology.SistemaDeGestao.receita.model.entities.Receita;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Verificação de suficiência e desconto de estoque de ProducaoService.descontarEstoquePorLotes,
+// sobre produtos já carregados (sem banco). Ingredientes repetem produtos para exercitar a soma.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EstoqueProducaoBenchmark {
+
+    private static final UnidadeMedida[] UNIDADES = UnidadeMedida.values();
+    private static final double ESTOQUE_INICIAL = 1.0e12;
+
+    @Param({ "10", "50" })
+    public int ingredientes;
+
+    private Receita receita;
+    private Map<Long, Product> produtos;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        receita = new Receita();
+        produtos = new HashMap<>();
+        int quantidadeProdutos = Math.max(1, ingredientes * 4 / 5);
+        for (int i = 0; i < quantidadeProdutos; i++) {
+            long id = i + 1;
+            produtos.put(id, Product.builder()
+                    .id(id)
+                    .nome("Produto " + id)
+                    .unidadeMedida(UNIDADES[i % UNIDADES.length])
+                    .quantidadeAtual(ESTOQUE_INICIAL)
+                    .precoCompra(3.0)
+                    .pesoPorUnidade(i % 2 == 0 ? 0.25 : null)
+                    .build());
+        }
+        for (int i = 0; i < ingredientes; i++) {
+            Product produto = produtos.get((long) (i % quantidadeProdutos) + 1);
+            receita.adicionarIngrediente(IngredienteDaReceita.builder()
+                    .produto(produto)
+                    .quantidadeNecessaria(0.5 + i)
+                    .unidadeMedida(UNIDADES[(i * 5 + 1) % UNIDADES.length])
+                    .build());
+        }
+    }
+
+    // Devolve o estoque para que nenhuma iteração esbarre em estoque insuficiente
+    @Setup(Level.Iteration)
+    public void restaurarEstoque() {
+        produtos.values().forEach(produto -> produto.setQuantidadeAtual(ESTOQUE_INICIAL));
+    }
+
+    @Benchmark
+    public Map<Long, Double> descontarEstoquePorLotes() {
+        return ProducaoService.descontarEstoquePorLotes(receita, 3, produtos);
+    }
+}
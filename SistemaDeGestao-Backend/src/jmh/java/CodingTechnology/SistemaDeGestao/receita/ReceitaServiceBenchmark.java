@@ -0,0 +1,139 @@
+package CodingTechnology.SistemaDeGestao.receita;
+
+import CodingTechnology.SistemaDeGestao.Produtos.model.entities.Product;
+import CodingTechnology.SistemaDeGestao.Produtos.model.enums.UnidadeMedida;
+import CodingTechnology.SistemaDeGestao.Produtos.repository.ProductRepository;
+import CodingTechnology.SistemaDeGestao.receita.DTO.CalculoCustoDTO;
+import CodingTechnology.SistemaDeGestao.receita.DTO.ItemCalculoDTO;
+import CodingTechnology.SistemaDeGestao.receita.DTO.ResultadoCalculoDTO;
+import CodingTechnology.SistemaDeGestao.receita.model.entities.IngredienteDaReceita;
+import CodingTechnology.SistemaDeGestao.receita.model.entities.Receita;
+import CodingTechnology.SistemaDeGestao.receita.service.ReceitaService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// Cálculo de custo de uma receita (produtos em memória, sem banco) e serialização JSON de uma
+// receita com 50 ingredientes, com o ObjectMapper configurado como o do Spring Boot
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReceitaServiceBenchmark {
+
+    private static final int INGREDIENTES = 50;
+    private static final UnidadeMedida[] UNIDADES = UnidadeMedida.values();
+
+    private ReceitaService receitaService;
+    private CalculoCustoDTO calculo;
+    private Receita receita;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setup() {
+        Map<Long, Product> produtos = new HashMap<>();
+        List<ItemCalculoDTO> itens = new ArrayList<>();
+        receita = Receita.builder()
+                .id(1L)
+                .nome("Receita de referência")
+                .descricao("Receita com " + INGREDIENTES + " ingredientes para medição")
+                .quantidadePadraoProduzida(10)
+                .precoVenda(120.0)
+                .margemLucro(50.0)
+                .emReparticao(true)
+                .quantidadePartes(12)
+                .precoPorParte(10.0)
+                .dataCriacao(LocalDateTime.now())
+                .dataAtualizacao(LocalDateTime.now())
+                .build();
+
+        for (int i = 0; i < INGREDIENTES; i++) {
+            long id = i + 1;
+            UnidadeMedida unidadeProduto = UNIDADES[i % UNIDADES.length];
+            UnidadeMedida unidadeIngrediente = UNIDADES[(i * 7 + 3) % UNIDADES.length];
+            Product produto = Product.builder()
+                    .id(id)
+                    .nome("Produto " + id)
+                    .unidadeMedida(unidadeProduto)
+                    .quantidadeInicial(1_000.0)
+                    .quantidadeAtual(1_000.0)
+                    .precoCompra(5.0 + i)
+                    .precoVenda(8.0 + i)
+                    .pesoPorUnidade(i % 3 == 0 ? 0.5 : null)
+                    .build();
+            produtos.put(id, produto);
+
+            ItemCalculoDTO item = new ItemCalculoDTO();
+            item.setProdutoId(id);
+            item.setQuantidade(0.25 + i);
+            item.setUnidadeMedida(unidadeIngrediente);
+            itens.add(item);
+
+            receita.adicionarIngrediente(IngredienteDaReceita.builder()
+                    .id(id)
+                    .produto(produto)
+                    .quantidadeNecessaria(0.25 + i)
+                    .unidadeMedida(unidadeIngrediente)
+                    .observacoes("Ingrediente " + id)
+                    .build());
+        }
+
+        calculo = new CalculoCustoDTO();
+        calculo.setIngredientes(itens);
+        calculo.setMargemLucro(40.0);
+        calculo.setQuantidadePartes(8);
+
+        receitaService = new ReceitaService(null, null, produtosEmMemoria(produtos), evento -> {
+        });
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    @Benchmark
+    public ResultadoCalculoDTO calcularCustoPrevisao() {
+        return receitaService.calcularCustoPrevisao(calculo);
+    }
+
+    @Benchmark
+    public byte[] serializarReceita() throws Exception {
+        return objectMapper.writeValueAsBytes(receita);
+    }
+
+    // ProductRepository que atende apenas findById a partir de um mapa
+    private static ProductRepository produtosEmMemoria(Map<Long, Product> produtos) {
+        return (ProductRepository) Proxy.newProxyInstance(ProductRepository.class.getClassLoader(),
+                new Class<?>[] { ProductRepository.class }, (proxy, metodo, argumentos) -> {
+                    switch (metodo.getName()) {
+                        case "findById":
+                            return Optional.ofNullable(produtos.get((Long) argumentos[0]));
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == argumentos[0];
+                        case "toString":
+                            return "ProductRepository em memória";
+                        default:
+                            throw new UnsupportedOperationException(metodo.getName());
+                    }
+                });
+    }
+}
@@ -0,0 +1,17 @@
+package CodingTechnology.SistemaDeGestao.Produtos.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import CodingTechnology.SistemaDeGestao.Produtos.model.enums.UnidadeMedida;
+
+@Data
+@AllArgsConstructor
+public class PrevisaoConsumoDTO {
+    private Long produtoId;
+    private String nome;
+    private UnidadeMedida unidadeMedida;
+    private Double quantidadeAtual;
+    private Double consumoMedioDiario; // Média móvel exponencial, na unidade do estoque
+    private Double diasAteFalta; // Nulo quando não há consumo registrado
+}
@@ -6,10 +6,14 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import CodingTechnology.SistemaDeGestao.Produtos.model.entities.Product;
+import CodingTechnology.SistemaDeGestao.Produtos.service.PrevisaoConsumoService;
 import CodingTechnology.SistemaDeGestao.Produtos.service.ProductService;
 import CodingTechnology.SistemaDeGestao.Produtos.DTO.CreateProductDTO;
+import CodingTechnology.SistemaDeGestao.Produtos.DTO.PrevisaoConsumoDTO;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestController
@@ -18,6 +22,7 @@ import java.util.stream.Collectors;
 public class ProductController {
 
     private final ProductService productService;
+    private final PrevisaoConsumoService previsaoConsumoService;
 
     // Cadastra um novo produto
     @PostMapping("/create")
@@ -63,6 +68,25 @@ public class ProductController {
         return ResponseEntity.ok(products);
     }
 
+    // Previsão de dias até a falta de cada produto, pelo consumo médio diário (EWMA)
+    @GetMapping("/previsao-consumo")
+    public ResponseEntity<List<PrevisaoConsumoDTO>> preverConsumo() {
+        return ResponseEntity.ok(previsaoConsumoService.preverConsumo());
+    }
+
+    // Recalcula as médias de consumo a partir do histórico de produções (apenas ADMIN)
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/previsao-consumo/recalcular")
+    public ResponseEntity<Map<String, Object>> recalcularPrevisaoConsumo() {
+        try {
+            return ResponseEntity.ok(previsaoConsumoService.recalcular());
+        } catch (IllegalStateException e) {
+            Map<String, Object> body = new HashMap<>();
+            body.put("error", e.getMessage());
+            return ResponseEntity.status(409).body(body);
+        }
+    }
+
     // Exclui um produto por ID
     @DeleteMapping("/delete/{id}")
     public ResponseEntity<Void> deleteProduct(@PathVariable Long id) {
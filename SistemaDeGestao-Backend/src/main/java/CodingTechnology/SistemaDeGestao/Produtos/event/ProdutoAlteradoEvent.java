@@ -0,0 +1,6 @@
+package CodingTechnology.SistemaDeGestao.Produtos.event;
+
+// Publicado quando um produto é criado, alterado, excluído ou tem o estoque ajustado.
+// produtoId é nulo quando a alteração atinge vários produtos.
+public record ProdutoAlteradoEvent(Long produtoId) {
+}
@@ -1,10 +1,15 @@
 package CodingTechnology.SistemaDeGestao.Produtos.repository;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import CodingTechnology.SistemaDeGestao.Produtos.model.entities.Product;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,4 +17,9 @@ import java.util.Optional;
 public interface ProductRepository extends JpaRepository<Product, Long> {
     Optional<Product> findByNomeIgnoreCase(String nome);
     List<Product> findAllByNomeIgnoreCase(String nome);
+
+    // Trava os produtos (SELECT ... FOR UPDATE) sempre em ordem crescente de id, evitando deadlocks
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id IN :ids ORDER BY p.id")
+    List<Product> findAllByIdParaAtualizacao(@Param("ids") Collection<Long> ids);
 }
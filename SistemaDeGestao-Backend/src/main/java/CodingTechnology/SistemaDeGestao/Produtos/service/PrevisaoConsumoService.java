@@ -0,0 +1,352 @@
+package CodingTechnology.SistemaDeGestao.Produtos.service;
+
+import CodingTechnology.SistemaDeGestao.Produtos.DTO.PrevisaoConsumoDTO;
+import CodingTechnology.SistemaDeGestao.Produtos.repository.ProductRepository;
+import CodingTechnology.SistemaDeGestao.producao.event.ProducaoEstornadaEvent;
+import CodingTechnology.SistemaDeGestao.producao.event.ProducaoRegistradaEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+// Consumo diário de cada produto como média móvel exponencial (EWMA), atualizada a cada produção
+@Service
+public class PrevisaoConsumoService {
+
+    private static final Logger log = LoggerFactory.getLogger(PrevisaoConsumoService.class);
+
+    // Linhas de consumo diário por tarefa no cálculo paralelo da carga inicial
+    private static final int TAMANHO_BLOCO = 4096;
+
+    private static final double CONSUMO_MINIMO = 1e-9;
+
+    private final ProductRepository productRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final double alfa;
+
+    private volatile Map<Long, MediaConsumo> medias = new ConcurrentHashMap<>();
+
+    // Enquanto a carga roda, todos os eventos são guardados; no fim, os que o snapshot da carga
+    // ainda não enxergava são reaplicados às novas médias
+    private final AtomicBoolean carregando = new AtomicBoolean(false);
+    private final List<EventoConsumo> pendentes = new ArrayList<>();
+
+    public PrevisaoConsumoService(ProductRepository productRepository,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${application.produtos.previsao.alfa:0.1}") double alfa) {
+        if (alfa <= 0 || alfa > 1) {
+            throw new IllegalArgumentException("O fator de suavização deve estar entre 0 e 1.");
+        }
+        this.productRepository = productRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.alfa = alfa;
+    }
+
+    // Semeia as médias a partir do histórico assim que a aplicação sobe, sem atrasar a inicialização.
+    // Roda no executor de @Async (virtual threads no perfil "virtual")
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void aoIniciar() {
+        try {
+            recalcular();
+        } catch (Exception e) {
+            log.error("Falha ao carregar a previsão de consumo: {}", e.getMessage(), e);
+        }
+    }
+
+    // Atualiza em O(1) a média de cada ingrediente descontado pela produção
+    @TransactionalEventListener
+    public synchronized void aoRegistrarProducao(ProducaoRegistradaEvent evento) {
+        receber(new EventoConsumo(evento.producaoId(), false, evento.dataProducao(), evento.consumoPorProduto()));
+    }
+
+    // Retira das médias o consumo devolvido pelo estorno, como os resumos diários já fazem
+    @TransactionalEventListener
+    public synchronized void aoEstornarProducao(ProducaoEstornadaEvent evento) {
+        receber(new EventoConsumo(evento.producaoId(), true, evento.dataProducao(), evento.consumoPorProduto()));
+    }
+
+    private void receber(EventoConsumo evento) {
+        if (carregando.get()) {
+            pendentes.add(evento);
+        }
+        aplicar(medias, evento);
+    }
+
+    // Dias até a falta de cada produto, do mais urgente para o menos urgente
+    public List<PrevisaoConsumoDTO> preverConsumo() {
+        long hoje = LocalDate.now().toEpochDay();
+        Map<Long, MediaConsumo> atuais = medias;
+
+        return productRepository.findAll().stream()
+                .map(produto -> {
+                    MediaConsumo media = atuais.get(produto.getId());
+                    double consumo = media != null ? media.taxaEm(hoje, alfa) : 0.0;
+                    double estoque = produto.getQuantidadeAtual() != null ? produto.getQuantidadeAtual() : 0.0;
+                    Double dias = consumo > CONSUMO_MINIMO ? Math.max(0.0, estoque) / consumo : null;
+                    return new PrevisaoConsumoDTO(produto.getId(), produto.getNome(), produto.getUnidadeMedida(),
+                            produto.getQuantidadeAtual(), consumo, dias);
+                })
+                .sorted(Comparator.comparing(PrevisaoConsumoDTO::getDiasAteFalta,
+                                Comparator.nullsLast(Comparator.naturalOrder()))
+                        .thenComparing(PrevisaoConsumoDTO::getProdutoId))
+                .toList();
+    }
+
+    // Recalcula todas as médias a partir do consumo gravado em cada produção (producao_consumos), a mesma
+    // origem dos eventos: mudar uma receita não altera o histórico nem desloca a previsão no recálculo.
+    // Como a EWMA é linear, cada dia contribui com alfa * (1 - alfa)^(dias até ontem): os blocos
+    // de linhas são somados em paralelo, sem precisar percorrer os dias em ordem.
+    public Map<String, Object> recalcular() {
+        if (!carregando.compareAndSet(false, true)) {
+            throw new IllegalStateException("O recálculo da previsão de consumo já está em execução.");
+        }
+
+        try {
+            long hoje = LocalDate.now().toEpochDay();
+
+            // Consumos e visibilidade dos eventos guardados lidos na mesma transação, portanto no mesmo snapshot.
+            // Os ids das produções não servem de marca: são atribuídos antes do commit, fora de ordem.
+            int[] verificados = { 0 };
+            Map<Long, Boolean> visiveis = new HashMap<>();
+            ConsumosLidos consumos = transactionTemplate.execute(status -> {
+                ConsumosLidos lidos = lerConsumos();
+                List<EventoConsumo> recebidos;
+                synchronized (this) {
+                    recebidos = new ArrayList<>(pendentes);
+                }
+                verificados[0] = recebidos.size();
+                visiveis.putAll(lerVisiveis(recebidos));
+                return lidos;
+            });
+
+            List<Long> produtoIds = consumos.produtoIds;
+            int quantidadeProdutos = produtoIds.size();
+            int blocos = (consumos.tamanho + TAMANHO_BLOCO - 1) / TAMANHO_BLOCO;
+
+            double[][] somas = IntStream.range(0, blocos)
+                    .parallel()
+                    .mapToObj(b -> somarBloco(consumos, b * TAMANHO_BLOCO,
+                            Math.min(consumos.tamanho, (b + 1) * TAMANHO_BLOCO), quantidadeProdutos, hoje))
+                    .reduce(new double[][] { new double[quantidadeProdutos], new double[quantidadeProdutos] },
+                            PrevisaoConsumoService::somar);
+
+            Map<Long, MediaConsumo> novas = new ConcurrentHashMap<>();
+            for (int p = 0; p < quantidadeProdutos; p++) {
+                if (somas[0][p] > 0 || somas[1][p] > 0) {
+                    novas.put(produtoIds.get(p), new MediaConsumo(somas[0][p], hoje, somas[1][p]));
+                }
+            }
+
+            synchronized (this) {
+                // Eventos recebidos depois da verificação são posteriores ao snapshot e sempre reaplicados
+                for (int i = 0; i < pendentes.size(); i++) {
+                    EventoConsumo evento = pendentes.get(i);
+                    if (i >= verificados[0] || !evento.refletidoEm(visiveis)) {
+                        aplicar(novas, evento);
+                    }
+                }
+                pendentes.clear();
+                medias = novas;
+                carregando.set(false);
+            }
+
+            log.info("Previsão de consumo recalculada: {} produtos a partir de {} consumos diários",
+                    novas.size(), consumos.tamanho);
+
+            Map<String, Object> resultado = new HashMap<>();
+            resultado.put("produtos", novas.size());
+            resultado.put("consumosLidos", consumos.tamanho);
+            return resultado;
+        } finally {
+            synchronized (this) {
+                pendentes.clear();
+                carregando.set(false);
+            }
+        }
+    }
+
+    // id -> estoque_descontado das produções dos eventos guardados, como o snapshot da carga as vê
+    private Map<Long, Boolean> lerVisiveis(List<EventoConsumo> eventos) {
+        Map<Long, Boolean> visiveis = new HashMap<>();
+        List<Long> ids = eventos.stream().map(EventoConsumo::producaoId).distinct().toList();
+        for (int inicio = 0; inicio < ids.size(); inicio += 1000) {
+            List<Long> parte = ids.subList(inicio, Math.min(inicio + 1000, ids.size()));
+            String marcadores = String.join(", ", Collections.nCopies(parte.size(), "?"));
+            jdbcTemplate.query("SELECT id, estoque_descontado FROM producoes WHERE id IN (" + marcadores + ")",
+                    rs -> {
+                        visiveis.put(rs.getLong(1), rs.getBoolean(2));
+                    }, parte.toArray());
+        }
+        return visiveis;
+    }
+
+    // Consumo por dia e produto das produções não estornadas, já na unidade do estoque. Produções
+    // arquivadas saem de producao_consumos, mas têm mais que o horizonte do arquivo e peso desprezível na EWMA.
+    private ConsumosLidos lerConsumos() {
+        ConsumosLidos consumos = new ConsumosLidos();
+        jdbcTemplate.query("SELECT CAST(p.data_producao AS DATE), c.produto_id, SUM(c.quantidade) "
+                + "FROM producao_consumos c JOIN producoes p ON p.id = c.producao_id "
+                + "WHERE p.estoque_descontado = TRUE "
+                + "GROUP BY CAST(p.data_producao AS DATE), c.produto_id", rs -> {
+                    double quantidade = rs.getDouble(3);
+                    if (quantidade > 0) {
+                        consumos.adicionar(rs.getDate(1).toLocalDate().toEpochDay(), rs.getLong(2), quantidade);
+                    }
+                });
+        return consumos;
+    }
+
+    // [0] = contribuição dos dias anteriores a hoje para a média; [1] = consumo de hoje (dia em aberto)
+    private double[][] somarBloco(ConsumosLidos consumos, int inicio, int fim, int quantidadeProdutos, long hoje) {
+        double[] media = new double[quantidadeProdutos];
+        double[] consumoHoje = new double[quantidadeProdutos];
+        double fatorDecaimento = Math.log(1 - alfa);
+
+        for (int i = inicio; i < fim; i++) {
+            long dia = consumos.dias[i];
+            if (dia > hoje) {
+                continue;
+            }
+
+            double peso = dia == hoje ? 1.0 : alfa * Math.exp(fatorDecaimento * (hoje - 1 - dia));
+            double[] destino = dia == hoje ? consumoHoje : media;
+            destino[consumos.indices[i]] += peso * consumos.quantidades[i];
+        }
+        return new double[][] { media, consumoHoje };
+    }
+
+    private static double[][] somar(double[][] a, double[][] b) {
+        double[][] soma = new double[2][a[0].length];
+        for (int k = 0; k < 2; k++) {
+            for (int p = 0; p < a[k].length; p++) {
+                soma[k][p] = a[k][p] + b[k][p];
+            }
+        }
+        return soma;
+    }
+
+    private void aplicar(Map<Long, MediaConsumo> destino, EventoConsumo evento) {
+        if (evento.consumoPorProduto() == null) {
+            return;
+        }
+        long dia = evento.dataProducao().toLocalDate().toEpochDay();
+        evento.consumoPorProduto().forEach((produtoId, quantidade) -> {
+            if (evento.estorno()) {
+                MediaConsumo media = destino.get(produtoId);
+                if (media != null) {
+                    media.estornar(dia, quantidade, alfa);
+                }
+            } else {
+                destino.computeIfAbsent(produtoId, id -> new MediaConsumo(0.0, dia, 0.0))
+                        .registrar(dia, quantidade, alfa);
+            }
+        });
+    }
+
+    // Registro ou estorno recebido por evento, guardado durante a carga
+    private record EventoConsumo(Long producaoId, boolean estorno, LocalDateTime dataProducao,
+            Map<Long, Double> consumoPorProduto) {
+
+        // O snapshot já contém o registro se a produção aparece nele, e o estorno se ela aparece já estornada
+        private boolean refletidoEm(Map<Long, Boolean> visiveis) {
+            Boolean descontado = visiveis.get(producaoId);
+            return descontado != null && (!estorno || !descontado);
+        }
+    }
+
+    // Estado da EWMA de um produto: média fechada até o dia anterior a diaAtual e consumo acumulado em diaAtual
+    private static final class MediaConsumo {
+        private double media;
+        private long diaAtual;
+        private double consumoDia;
+
+        private MediaConsumo(double media, long diaAtual, double consumoDia) {
+            this.media = media;
+            this.diaAtual = diaAtual;
+            this.consumoDia = consumoDia;
+        }
+
+        private synchronized void registrar(long dia, double quantidade, double alfa) {
+            if (dia > diaAtual) {
+                media = fechar(dia, alfa);
+                diaAtual = dia;
+                consumoDia = 0.0;
+            }
+            // Produções retroativas entram no dia em aberto
+            consumoDia += quantidade;
+        }
+
+        // Retira o consumo de um dia: do dia em aberto diretamente, de um dia já fechado com o peso
+        // que ele tem hoje na média (alfa * (1 - alfa)^(dias até o dia anterior ao aberto))
+        private synchronized void estornar(long dia, double quantidade, double alfa) {
+            if (dia >= diaAtual) {
+                consumoDia = Math.max(0.0, consumoDia - quantidade);
+            } else {
+                media = Math.max(0.0, media - alfa * Math.pow(1 - alfa, diaAtual - 1 - dia) * quantidade);
+            }
+        }
+
+        // Média vista no início de "dia": fecha o dia em aberto e decai pelos dias sem consumo
+        private double fechar(long dia, double alfa) {
+            if (dia <= diaAtual) {
+                return media;
+            }
+            double fechada = alfa * consumoDia + (1 - alfa) * media;
+            return fechada * Math.pow(1 - alfa, dia - diaAtual - 1);
+        }
+
+        private synchronized double taxaEm(long hoje, double alfa) {
+            return fechar(hoje, alfa);
+        }
+    }
+
+    // Linhas de consumo (dia, índice do produto, quantidade) em arrays primitivos
+    private static final class ConsumosLidos {
+        private final Map<Long, Integer> indicePorProduto = new HashMap<>();
+        private final List<Long> produtoIds = new ArrayList<>();
+        private long[] dias = new long[1024];
+        private int[] indices = new int[1024];
+        private double[] quantidades = new double[1024];
+        private int tamanho;
+
+        private void adicionar(long dia, long produtoId, double quantidade) {
+            if (tamanho == dias.length) {
+                dias = Arrays.copyOf(dias, tamanho * 2);
+                indices = Arrays.copyOf(indices, tamanho * 2);
+                quantidades = Arrays.copyOf(quantidades, tamanho * 2);
+            }
+            dias[tamanho] = dia;
+            indices[tamanho] = indicePorProduto.computeIfAbsent(produtoId, id -> {
+                produtoIds.add(id);
+                return produtoIds.size() - 1;
+            });
+            quantidades[tamanho] = quantidade;
+            tamanho++;
+        }
+    }
+}
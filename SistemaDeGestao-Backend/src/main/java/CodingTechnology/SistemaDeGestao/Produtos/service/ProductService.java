@@ -1,20 +1,30 @@
 package CodingTechnology.SistemaDeGestao.Produtos.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import CodingTechnology.SistemaDeGestao.Produtos.event.ProdutoAlteradoEvent;
 import CodingTechnology.SistemaDeGestao.Produtos.model.entities.Product;
 import CodingTechnology.SistemaDeGestao.Produtos.repository.ProductRepository;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 
+@Timed("servico.produtos")
 @Service
 @RequiredArgsConstructor
 public class ProductService {
 
     private final ProductRepository productRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
 
     // Salva um novo produto no banco de dados
     public Product saveProduct(Product product) {
@@ -26,7 +36,9 @@ public class ProductService {
             throw new IllegalArgumentException("A unidade de medida é obrigatória.");
         }
 
-        return productRepository.save(product);
+        Product salvo = productRepository.save(product);
+        eventPublisher.publishEvent(new ProdutoAlteradoEvent(salvo.getId()));
+        return salvo;
     }
 
     // Lista todos os produtos cadastrados
@@ -42,11 +54,13 @@ public class ProductService {
     // Exclui um produto por ID
     public void deleteProductById(Long id) {
         productRepository.deleteById(id);
+        eventPublisher.publishEvent(new ProdutoAlteradoEvent(id));
     }
 
     // Exclui todos os produtos do banco de dados
     public void deleteAllProductsAndResetId() {
         productRepository.deleteAll();
+        eventPublisher.publishEvent(new ProdutoAlteradoEvent(null));
     }
 
     // Desconta quantidade do estoque de um produto
@@ -76,6 +90,7 @@ public class ProductService {
 
         produto.setQuantidadeAtual(novaQuantidade);
         productRepository.save(produto);
+        eventPublisher.publishEvent(new ProdutoAlteradoEvent(produtoId));
     }
 
     // Adiciona quantidade ao estoque de um produto
@@ -94,6 +109,47 @@ public class ProductService {
 
         produto.setQuantidadeAtual(produto.getQuantidadeAtual() + quantidadeAdicionar);
         productRepository.save(produto);
+        eventPublisher.publishEvent(new ProdutoAlteradoEvent(produtoId));
+    }
+
+    // Aplica variações de estoque (positivas ou negativas) a vários produtos em um único UPDATE.
+    // Falha, revertendo a transação, se algum produto não existir ou ficar com estoque negativo.
+    @Transactional
+    public void ajustarEstoqueEmLote(Map<Long, Double> variacoes) {
+        if (variacoes.isEmpty()) {
+            return;
+        }
+
+        // Ordenado por id, para travar as linhas na mesma ordem que registrarProducao
+        TreeMap<Long, Double> ordenadas = new TreeMap<>(variacoes);
+
+        StringBuilder caso = new StringBuilder("CASE id");
+        StringBuilder ids = new StringBuilder();
+        List<Object> parametrosCaso = new ArrayList<>();
+        List<Object> parametrosIds = new ArrayList<>();
+
+        for (Map.Entry<Long, Double> entry : ordenadas.entrySet()) {
+            caso.append(" WHEN ? THEN ?");
+            parametrosCaso.add(entry.getKey());
+            parametrosCaso.add(entry.getValue());
+            ids.append(ids.length() == 0 ? "?" : ", ?");
+            parametrosIds.add(entry.getKey());
+        }
+        caso.append(" ELSE 0 END");
+
+        String sql = "UPDATE products SET quantidade_atual = COALESCE(quantidade_atual, 0) + " + caso
+                + " WHERE id IN (" + ids + ") AND COALESCE(quantidade_atual, 0) + " + caso + " >= 0";
+
+        List<Object> parametros = new ArrayList<>(parametrosCaso);
+        parametros.addAll(parametrosIds);
+        parametros.addAll(parametrosCaso);
+
+        int atualizados = jdbcTemplate.update(sql, parametros.toArray());
+        if (atualizados != ordenadas.size()) {
+            throw new IllegalArgumentException(
+                    "Não foi possível ajustar o estoque: produto inexistente ou o estoque ficaria negativo.");
+        }
+        eventPublisher.publishEvent(new ProdutoAlteradoEvent(null));
     }
 
     // Atualiza um produto existente
@@ -112,6 +168,8 @@ public class ProductService {
             existingProduct.setQuantidadeAtual(updatedProduct.getQuantidadeAtual());
         }
 
-        return productRepository.save(existingProduct);
+        Product salvo = productRepository.save(existingProduct);
+        eventPublisher.publishEvent(new ProdutoAlteradoEvent(id));
+        return salvo;
     }
 }
@@ -0,0 +1,83 @@
+package CodingTechnology.SistemaDeGestao.acesso.filter;
+
+import CodingTechnology.SistemaDeGestao.acesso.model.RegistroAcesso;
+import CodingTechnology.SistemaDeGestao.acesso.service.RegistroAcessoService;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Mede cada requisição e entrega um registro compacto ao RegistroAcessoService.
+// Roda antes da cadeia do Spring Security; o usuário autenticado chega pelo atributo ATRIBUTO_USUARIO.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RegistroAcessoFilter extends OncePerRequestFilter {
+
+    public static final String ATRIBUTO_USUARIO = RegistroAcessoFilter.class.getName() + ".usuario";
+
+    private final RegistroAcessoService registroAcessoService;
+
+    public RegistroAcessoFilter(RegistroAcessoService registroAcessoService) {
+        this.registroAcessoService = registroAcessoService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long inicio = System.nanoTime();
+        long instante = System.currentTimeMillis();
+        boolean falhou = true;
+        try {
+            filterChain.doFilter(request, response);
+            falhou = false;
+        } finally {
+            if (!falhou && request.isAsyncStarted()) {
+                // Respostas assíncronas (login, SSE) só têm status final ao concluir
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        registrar(request, response.getStatus(), inicio, instante);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                registrar(request, falhou ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus(),
+                        inicio, instante);
+            }
+        }
+    }
+
+    private void registrar(HttpServletRequest request, int status, long inicio, long instante) {
+        if (!registroAcessoService.deveRegistrar(status)) {
+            return;
+        }
+        Object usuario = request.getAttribute(ATRIBUTO_USUARIO);
+        registroAcessoService.registrar(new RegistroAcesso(
+                instante,
+                request.getMethod(),
+                request.getRequestURI(),
+                status,
+                (System.nanoTime() - inicio) / 1_000,
+                usuario != null ? usuario.toString() : null,
+                request.getRemoteAddr()));
+    }
+}
@@ -0,0 +1,6 @@
+package CodingTechnology.SistemaDeGestao.acesso.model;
+
+// Uma linha do log de acesso: instante (epoch millis), requisição, resultado e duração em microssegundos
+public record RegistroAcesso(long instante, String metodo, String caminho, int status, long duracaoMicros,
+        String usuario, String ip) {
+}
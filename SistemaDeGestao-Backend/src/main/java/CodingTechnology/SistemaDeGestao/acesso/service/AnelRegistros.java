@@ -0,0 +1,61 @@
+package CodingTechnology.SistemaDeGestao.acesso.service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Buffer circular limitado, sem travas, com vários produtores (threads das requisições) e um único
+// consumidor (o escritor). Com o anel cheio o registro é descartado em vez de bloquear a requisição.
+final class AnelRegistros<T> {
+
+    private final AtomicReferenceArray<T> slots;
+    private final int mascara;
+    private final AtomicLong cauda = new AtomicLong();
+    private final AtomicLong descartados = new AtomicLong();
+    private volatile long cabeca;
+
+    AnelRegistros(int capacidade) {
+        int tamanho = Integer.highestOneBit(Math.max(2, capacidade - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(tamanho);
+        this.mascara = tamanho - 1;
+    }
+
+    // Reserva uma posição por CAS e publica o item; devolve false se o anel estiver cheio
+    boolean publicar(T item) {
+        while (true) {
+            long posicao = cauda.get();
+            if (posicao - cabeca > mascara) {
+                descartados.incrementAndGet();
+                return false;
+            }
+            if (cauda.compareAndSet(posicao, posicao + 1)) {
+                slots.lazySet((int) posicao & mascara, item);
+                return true;
+            }
+        }
+    }
+
+    // Apenas o consumidor chama: move até "maximo" itens publicados para o destino.
+    // Para no primeiro slot reservado e ainda não publicado.
+    int drenar(List<T> destino, int maximo) {
+        long posicao = cabeca;
+        int lidos = 0;
+        while (lidos < maximo) {
+            int indice = (int) posicao & mascara;
+            T item = slots.get(indice);
+            if (item == null) {
+                break;
+            }
+            slots.lazySet(indice, null);
+            destino.add(item);
+            posicao++;
+            lidos++;
+        }
+        cabeca = posicao;
+        return lidos;
+    }
+
+    long getDescartados() {
+        return descartados.get();
+    }
+}
@@ -0,0 +1,141 @@
+package CodingTechnology.SistemaDeGestao.acesso.service;
+
+import CodingTechnology.SistemaDeGestao.acesso.model.RegistroAcesso;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Log de acesso estruturado: a requisição só publica o registro no anel; um escritor em segundo plano
+// drena em lotes e grava cada lote em um único evento do logger "acesso".
+// Falhas (status >= 400) são sempre registradas; sucessos seguem a taxa de amostragem.
+@Service
+public class RegistroAcessoService {
+
+    private static final Logger log = LoggerFactory.getLogger(RegistroAcessoService.class);
+    private static final Logger acesso = LoggerFactory.getLogger("acesso");
+
+    private final boolean habilitado;
+    private final double amostragemSucesso;
+    private final int tamanhoLote;
+    private final long intervaloEscritaNanos;
+    private final AnelRegistros<RegistroAcesso> anel;
+
+    private volatile boolean ativo = true;
+    private Thread escritor;
+    private long descartadosInformados;
+
+    public RegistroAcessoService(
+            @Value("${application.acesso.habilitado:true}") boolean habilitado,
+            @Value("${application.acesso.amostragem-sucesso:0.1}") double amostragemSucesso,
+            @Value("${application.acesso.capacidade-buffer:8192}") int capacidadeBuffer,
+            @Value("${application.acesso.tamanho-lote:512}") int tamanhoLote,
+            @Value("${application.acesso.intervalo-escrita-ms:200}") long intervaloEscritaMillis) {
+        this.habilitado = habilitado;
+        this.amostragemSucesso = amostragemSucesso;
+        this.tamanhoLote = tamanhoLote;
+        this.intervaloEscritaNanos = TimeUnit.MILLISECONDS.toNanos(intervaloEscritaMillis);
+        this.anel = new AnelRegistros<>(capacidadeBuffer);
+    }
+
+    // Inicia o escritor em uma virtual thread
+    @PostConstruct
+    public void iniciar() {
+        if (habilitado) {
+            escritor = Thread.ofVirtual().name("acesso-escritor").start(this::escrever);
+        }
+    }
+
+    // Encerra o escritor gravando o que ainda estiver no anel
+    @PreDestroy
+    public void encerrar() {
+        ativo = false;
+        if (escritor != null) {
+            LockSupport.unpark(escritor);
+            try {
+                escritor.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // Decide pela amostragem se a requisição é registrada; não bloqueia e não faz I/O
+    public boolean deveRegistrar(int status) {
+        if (!habilitado) {
+            return false;
+        }
+        return status >= 400 || amostragemSucesso >= 1.0
+                || (amostragemSucesso > 0.0 && ThreadLocalRandom.current().nextDouble() < amostragemSucesso);
+    }
+
+    public void registrar(RegistroAcesso registro) {
+        anel.publicar(registro);
+    }
+
+    // Laço do escritor: drena em lotes e dorme quando o anel está vazio
+    private void escrever() {
+        List<RegistroAcesso> lote = new ArrayList<>(tamanhoLote);
+        StringBuilder linhas = new StringBuilder(tamanhoLote * 96);
+
+        while (true) {
+            lote.clear();
+            int lidos = anel.drenar(lote, tamanhoLote);
+            if (lidos > 0) {
+                gravar(lote, linhas);
+            }
+            informarDescartes();
+            if (lidos < tamanhoLote) {
+                if (!ativo) {
+                    if (lidos == 0) {
+                        return;
+                    }
+                    continue;
+                }
+                LockSupport.parkNanos(intervaloEscritaNanos);
+            }
+        }
+    }
+
+    // Um evento de log por lote, uma linha por requisição (campos separados por espaço, no estilo key=value)
+    private void gravar(List<RegistroAcesso> lote, StringBuilder linhas) {
+        if (!acesso.isInfoEnabled()) {
+            return;
+        }
+        linhas.setLength(0);
+        for (RegistroAcesso registro : lote) {
+            if (linhas.length() > 0) {
+                linhas.append('\n');
+            }
+            linhas.append("ts=").append(Instant.ofEpochMilli(registro.instante()))
+                    .append(" method=").append(registro.metodo())
+                    .append(" path=").append(registro.caminho())
+                    .append(" status=").append(registro.status())
+                    .append(" us=").append(registro.duracaoMicros())
+                    .append(" user=").append(registro.usuario() != null ? registro.usuario() : "-")
+                    .append(" ip=").append(registro.ip());
+        }
+        try {
+            acesso.info(linhas.toString());
+        } catch (Exception e) {
+            log.warn("Falha ao gravar o log de acesso: {}", e.getMessage());
+        }
+    }
+
+    private void informarDescartes() {
+        long descartados = anel.getDescartados();
+        if (descartados != descartadosInformados) {
+            log.warn("{} registros de acesso descartados com o buffer cheio", descartados - descartadosInformados);
+            descartadosInformados = descartados;
+        }
+    }
+}
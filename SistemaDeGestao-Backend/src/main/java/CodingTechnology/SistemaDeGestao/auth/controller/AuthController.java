@@ -1,27 +1,36 @@
 package CodingTechnology.SistemaDeGestao.auth.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import CodingTechnology.SistemaDeGestao.auth.DTO.AuthRequest;
 import CodingTechnology.SistemaDeGestao.auth.service.JwtService;
+import CodingTechnology.SistemaDeGestao.auth.service.LoginService;
+import CodingTechnology.SistemaDeGestao.auth.service.TentativasExcedidasException;
+import CodingTechnology.SistemaDeGestao.auth.service.RevogacaoTokenService;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 @RestController
@@ -29,22 +38,55 @@ import java.util.stream.Collectors;
 public class AuthController {
 
     @Autowired
-    private AuthenticationManager authenticationManager;
+    private LoginService loginService;
 
     @Autowired
     private JwtService jwtService;
 
+    @Autowired
+    private RevogacaoTokenService revogacaoTokenService;
+
     private static final Logger log = LoggerFactory.getLogger(AuthController.class);
 
-    // Autentica usuário e retorna token JWT
+    // Autentica usuário e retorna token JWT. A verificação da senha roda no executor de login,
+    // liberando a thread do Tomcat enquanto o BCrypt trabalha.
     @PostMapping("/login")
-    public ResponseEntity<Map<String, String>> authenticateAndGetToken(@RequestBody AuthRequest authRequest) {
+    public CompletableFuture<ResponseEntity<Map<String, String>>> authenticateAndGetToken(
+            @RequestBody AuthRequest authRequest, HttpServletRequest request) {
         log.debug("Login attempt for username={}", authRequest.getUsername());
 
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(authRequest.getUsername(), authRequest.getPassword()));
+        CompletableFuture<Authentication> autenticacao;
+        try {
+            autenticacao = loginService.autenticar(authRequest.getUsername(), authRequest.getPassword(),
+                    request.getRemoteAddr());
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(Map.of("error", e.getMessage())));
+        } catch (TentativasExcedidasException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSegundos()))
+                    .body(Map.of("error", e.getMessage())));
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("error", "Muitos logins em andamento. Tente novamente em instantes.")));
+        }
 
-        if (authentication.isAuthenticated()) {
+        return autenticacao.handle((authentication, erro) -> {
+            if (erro != null) {
+                Throwable causa = erro instanceof CompletionException && erro.getCause() != null ? erro.getCause()
+                        : erro;
+                if (causa instanceof AuthenticationException) {
+                    return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                            .body(Map.of("error", "Invalid credentials"));
+                }
+                log.error("Unexpected error during login for username={}: {}", authRequest.getUsername(),
+                        causa.getMessage());
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(Map.of("error", "Erro ao autenticar"));
+            }
+            if (!authentication.isAuthenticated()) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Invalid credentials"));
+            }
             UserDetails userDetails = (UserDetails) authentication.getPrincipal();
             String token = jwtService.generateToken(userDetails);
             log.debug("Token generated for user {} (len={})", userDetails.getUsername(),
@@ -52,8 +94,24 @@ public class AuthController {
             Map<String, String> response = new HashMap<>();
             response.put("token", token);
             return ResponseEntity.ok(response);
-        } else {
-            return ResponseEntity.badRequest().body(Map.of("error", "Invalid credentials"));
+        });
+    }
+
+    // Revoga o token informado no cabeçalho Authorization
+    @PostMapping("/logout")
+    public ResponseEntity<Map<String, String>> logout(
+            @RequestHeader(value = "Authorization", required = false) String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Token não informado"));
+        }
+        try {
+            JwtService.TokenVerificado token = jwtService.verify(authHeader.substring(7));
+            revogacaoTokenService.revogarToken(token);
+            return ResponseEntity.ok(Map.of("message", "Logout realizado com sucesso"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (io.jsonwebtoken.JwtException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Token inválido"));
         }
     }
 
@@ -0,0 +1,36 @@
+package CodingTechnology.SistemaDeGestao.auth.model.entities;
+
+import CodingTechnology.SistemaDeGestao.auth.model.enums.TipoRevogacao;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "revogacoes_token", uniqueConstraints = @UniqueConstraint(columnNames = { "tipo", "valor" }))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevogacaoToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private TipoRevogacao tipo;
+
+    // Username (SUJEITO) ou jti do token (TOKEN)
+    @Column(nullable = false, length = 100)
+    private String valor;
+
+    // Comparado em millis com a claim iat_ms: depende da precisão padrão do Hibernate 6 (datetime(6))
+    @Column(name = "revogado_em", nullable = false)
+    private LocalDateTime revogadoEm;
+
+    // A partir deste instante nenhum token afetado continua válido e o registro pode ser descartado
+    @Column(name = "expira_em", nullable = false)
+    private LocalDateTime expiraEm;
+}
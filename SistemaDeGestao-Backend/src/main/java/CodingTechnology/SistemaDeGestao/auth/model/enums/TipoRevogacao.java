@@ -0,0 +1,8 @@
+package CodingTechnology.SistemaDeGestao.auth.model.enums;
+
+public enum TipoRevogacao {
+    // Todos os tokens do usuário emitidos até o momento da revogação
+    SUJEITO,
+    // Um único token, identificado pelo jti
+    TOKEN
+}
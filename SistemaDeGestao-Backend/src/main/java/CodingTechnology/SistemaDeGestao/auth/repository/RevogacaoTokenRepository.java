@@ -0,0 +1,28 @@
+package CodingTechnology.SistemaDeGestao.auth.repository;
+
+import CodingTechnology.SistemaDeGestao.auth.model.entities.RevogacaoToken;
+import CodingTechnology.SistemaDeGestao.auth.model.enums.TipoRevogacao;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RevogacaoTokenRepository extends JpaRepository<RevogacaoToken, Long> {
+
+    Optional<RevogacaoToken> findByTipoAndValor(TipoRevogacao tipo, String valor);
+
+    List<RevogacaoToken> findByExpiraEmAfter(LocalDateTime instante);
+
+    // Remove revogações cujos tokens já expiraram de qualquer forma
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RevogacaoToken r WHERE r.expiraEm <= :instante")
+    int excluirExpiradas(@Param("instante") LocalDateTime instante);
+}
@@ -5,6 +5,7 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -13,7 +14,9 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import CodingTechnology.SistemaDeGestao.acesso.filter.RegistroAcessoFilter;
 import CodingTechnology.SistemaDeGestao.auth.service.JwtService;
+import CodingTechnology.SistemaDeGestao.auth.service.RevogacaoTokenService;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,6 +35,13 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsService userDetailsService;
 
+    @Autowired
+    private RevogacaoTokenService revogacaoTokenService;
+
+    // Quando ativo, a autenticação é montada só a partir das claims verificadas, sem consultar o usuário
+    @Value("${application.security.jwt.stateless-claims:false}")
+    private boolean statelessClaims;
+
     private static final Logger log = LoggerFactory.getLogger(JwtAuthFilter.class);
 
     // Processa requisição e valida token JWT
@@ -41,11 +51,13 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
         final String userUsername;
-        String requestPath = request.getRequestURI();
-        log.info("Processing request: {} {}", request.getMethod(), requestPath);
-        log.debug("Authorization header: {}",
-                authHeader != null ? (authHeader.length() > 20 ? authHeader.substring(0, 20) + "..." : authHeader)
-                        : "null");
+        // Cada requisição já gera um registro no log de acesso; aqui só há detalhes em DEBUG
+        if (log.isDebugEnabled()) {
+            log.debug("Processing request: {} {}", request.getMethod(), request.getRequestURI());
+            log.debug("Authorization header: {}",
+                    authHeader != null ? (authHeader.length() > 20 ? authHeader.substring(0, 20) + "..." : authHeader)
+                            : "null");
+        }
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             log.debug("No Bearer token found in request");
@@ -55,44 +67,60 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         }
 
         jwt = authHeader.substring(7);
-        log.debug("Extracted JWT (first 20 chars): {}", jwt.length() > 20 ? jwt.substring(0, 20) + "..." : jwt);
 
+        // Assinatura e expiração verificadas uma única vez por requisição
+        final JwtService.TokenVerificado token;
         try {
-            userUsername = jwtService.extractUsername(jwt);
+            token = jwtService.verify(jwt);
+            userUsername = token.username();
         } catch (Exception ex) {
-            log.warn("Failed to extract username from JWT: {}", ex.getMessage());
+            log.debug("Failed to verify JWT: {}", ex.getMessage());
             SecurityContextHolder.clearContext();
             filterChain.doFilter(request, response);
             return;
         }
 
         log.debug("Username extracted from token: {}", userUsername);
+        request.setAttribute(RegistroAcessoFilter.ATRIBUTO_USUARIO, userUsername);
 
-        if (userUsername != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+        if (revogacaoTokenService.estaRevogado(token)) {
+            log.warn("Revoked token used for user: {}", userUsername);
+            SecurityContextHolder.clearContext();
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        if (userUsername != null && SecurityContextHolder.getContext().getAuthentication() == null
+                && statelessClaims) {
+            UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                    userUsername,
+                    null,
+                    token.authorities());
+            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authToken);
+            log.debug("Authentication set from token claims for user: {}", userUsername);
+        } else if (userUsername != null && SecurityContextHolder.getContext().getAuthentication() == null) {
             try {
                 UserDetails userDetails = this.userDetailsService.loadUserByUsername(userUsername);
 
-                boolean valid = false;
-                try {
-                    valid = jwtService.isTokenValid(jwt, userDetails);
-                } catch (Exception ex) {
-                    log.warn("Error while validating token: {}", ex.getMessage());
-                    SecurityContextHolder.clearContext();
-                }
+                boolean valid = userUsername.equals(userDetails.getUsername()) && !token.expirado();
 
                 log.debug("Is token valid for user {}: {}", userUsername, valid);
 
                 if (valid) {
                     Collection<? extends GrantedAuthority> authorities = userDetails.getAuthorities();
-                    log.info("Setting authentication for user: {} with authorities: {}", userUsername,
-                            authorities.stream().map(GrantedAuthority::getAuthority).collect(Collectors.toList()));
+                    if (log.isDebugEnabled()) {
+                        log.debug("Setting authentication for user: {} with authorities: {}", userUsername,
+                                authorities.stream().map(GrantedAuthority::getAuthority)
+                                        .collect(Collectors.toList()));
+                    }
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails,
                             null,
                             authorities);
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
-                    log.info("Authentication successfully set in SecurityContext for user: {}", userUsername);
+                    log.debug("Authentication successfully set in SecurityContext for user: {}", userUsername);
                 } else {
                     log.warn("Token invalid for user: {}", userUsername);
                     SecurityContextHolder.clearContext();
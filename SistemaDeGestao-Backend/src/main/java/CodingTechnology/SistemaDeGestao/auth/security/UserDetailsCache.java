@@ -0,0 +1,93 @@
+package CodingTechnology.SistemaDeGestao.auth.security;
+
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// UserDetailsService com cache em memória limitado e com expiração, na frente da consulta ao banco.
+// Usuários ativos são autenticados pelo filtro JWT sem nenhuma consulta a users.
+// Leituras sem trava; ao passar do limite, uma única thread remove os expirados e, se preciso,
+// entradas arbitrárias até 90% do limite.
+public class UserDetailsCache implements UserDetailsService {
+
+    private final UserDetailsService delegate;
+    private final long ttlNanos;
+    private final int tamanhoMaximo;
+
+    private final ConcurrentHashMap<String, Entrada> entradas = new ConcurrentHashMap<>();
+    private final AtomicBoolean podando = new AtomicBoolean(false);
+
+    public UserDetailsCache(UserDetailsService delegate, long ttlSegundos, int tamanhoMaximo) {
+        this.delegate = delegate;
+        this.ttlNanos = ttlSegundos * 1_000_000_000L;
+        this.tamanhoMaximo = tamanhoMaximo;
+    }
+
+    // Devolve o usuário do cache enquanto não expirar; caso contrário consulta e guarda
+    @Override
+    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        long agora = System.nanoTime();
+        Entrada entrada = entradas.get(username);
+        if (entrada != null) {
+            if (agora - entrada.carregadoEm < ttlNanos) {
+                return entrada.usuario;
+            }
+            entradas.remove(username, entrada);
+        }
+
+        // Usuário inexistente não é guardado: a exceção segue para o chamador
+        UserDetails usuario = delegate.loadUserByUsername(username);
+        entradas.put(username, new Entrada(usuario, agora));
+        podarSeNecessario(agora);
+        return usuario;
+    }
+
+    // Remove o usuário do cache imediatamente e, se houver transação em andamento, de novo após o término,
+    // para que uma leitura concorrente anterior ao commit não deixe a versão antiga em memória
+    public void invalidar(String username) {
+        remover(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    remover(username);
+                }
+            });
+        }
+    }
+
+    // Esvazia o cache inteiro
+    public void invalidarTodos() {
+        entradas.clear();
+    }
+
+    private void remover(String username) {
+        entradas.remove(username);
+    }
+
+    private void podarSeNecessario(long agora) {
+        if (entradas.size() <= tamanhoMaximo || !podando.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            entradas.values().removeIf(entrada -> agora - entrada.carregadoEm >= ttlNanos);
+            int excedente = entradas.size() - tamanhoMaximo * 9 / 10;
+            Iterator<String> usernames = entradas.keySet().iterator();
+            while (excedente-- > 0 && usernames.hasNext()) {
+                usernames.next();
+                usernames.remove();
+            }
+        } finally {
+            podando.set(false);
+        }
+    }
+
+    private record Entrada(UserDetails usuario, long carregadoEm) {
+    }
+}
@@ -1,9 +1,11 @@
 package CodingTechnology.SistemaDeGestao.auth.service;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -13,19 +15,56 @@ import org.springframework.stereotype.Service;
 import javax.crypto.SecretKey;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 @Service
 public class JwtService {
 
-    @Value("${application.security.jwt.secret-key}")
-    private String secretKey;
+    // Instante de emissão em millis: iat tem precisão de segundos e não separa um token emitido logo
+    // depois de uma revogação de outro emitido no mesmo segundo, antes dela
+    static final String CLAIM_EMITIDO_MS = "iat_ms";
+
+    private final long jwtExpiration;
+
+    // Chave e parser montados uma única vez
+    private final SecretKey signInKey;
+    private final JwtParser jwtParser;
+
+    // Tokens já verificados, pela assinatura (o próprio HMAC, sem custo extra de hash).
+    // Leituras sem trava; ao passar do limite, uma única thread remove os expirados e, se preciso,
+    // entradas arbitrárias até 90% do limite.
+    private final ConcurrentHashMap<String, TokenEmCache> tokensVerificados = new ConcurrentHashMap<>();
+    private final int tamanhoCache;
+    private final AtomicBoolean podando = new AtomicBoolean(false);
+
+    public JwtService(@Value("${application.security.jwt.secret-key}") String secretKey,
+            @Value("${application.security.jwt.expiration}") long jwtExpiration,
+            @Value("${application.security.jwt.cache-size:10000}") int tamanhoCache) {
+        this.jwtExpiration = jwtExpiration;
+        this.signInKey = criarChave(secretKey);
+        this.jwtParser = Jwts.parser().verifyWith(signInKey).build();
+        this.tamanhoCache = tamanhoCache;
+    }
+
+    // Claims de um token cuja assinatura e expiração já foram verificadas.
+    // emitidoEmMillis é nulo em tokens emitidos antes da claim iat_ms existir.
+    public record TokenVerificado(String id, String username, Date emitidoEm, Long emitidoEmMillis, Date expiracao,
+            List<String> roles) {
+
+        public boolean expirado() {
+            return expiracao != null && expiracao.getTime() <= System.currentTimeMillis();
+        }
 
-    @Value("${application.security.jwt.expiration}")
-    private long jwtExpiration;
+        public List<? extends GrantedAuthority> authorities() {
+            return roles.stream().map(SimpleGrantedAuthority::new).collect(Collectors.toList());
+        }
+    }
 
     // Gera token JWT para o usuário
     public String generateToken(UserDetails userDetails) {
@@ -36,71 +75,104 @@ public class JwtService {
         return buildToken(claims, userDetails, jwtExpiration);
     }
 
-    // Extrai o username do token JWT
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+    // Verifica assinatura e expiração uma única vez e devolve as claims.
+    // Tokens vistos recentemente não passam de novo pelo HMAC enquanto não expirarem.
+    // Lança JwtException se o token for inválido ou estiver expirado.
+    @Timed("servico.auth.jwt")
+    public TokenVerificado verify(String token) {
+        int ponto = token.lastIndexOf('.');
+        String assinatura = tamanhoCache > 0 && ponto > 0 ? token.substring(ponto + 1) : null;
+
+        if (assinatura != null) {
+            TokenEmCache emCache = tokensVerificados.get(assinatura);
+            // Cabeçalho e payload comparados por inteiro: a assinatura só vale para o conteúdo que assinou
+            if (emCache != null && emCache.conteudo.length() == ponto && token.startsWith(emCache.conteudo)) {
+                if (!emCache.verificado.expirado()) {
+                    return emCache.verificado;
+                }
+                tokensVerificados.remove(assinatura, emCache);
+            }
+        }
+
+        Claims claims = jwtParser.parseSignedClaims(token).getPayload();
+        TokenVerificado verificado = new TokenVerificado(claims.getId(), claims.getSubject(), claims.getIssuedAt(),
+                extrairEmitidoEmMillis(claims), claims.getExpiration(), extrairRoles(claims));
+
+        if (assinatura != null) {
+            tokensVerificados.put(assinatura, new TokenEmCache(token.substring(0, ponto), verificado));
+            podarSeNecessario();
+        }
+        return verificado;
     }
 
-    // Valida se o token JWT é válido para o usuário
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+    private void podarSeNecessario() {
+        if (tokensVerificados.size() <= tamanhoCache || !podando.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            tokensVerificados.values().removeIf(emCache -> emCache.verificado.expirado());
+            int excedente = tokensVerificados.size() - tamanhoCache * 9 / 10;
+            Iterator<String> chaves = tokensVerificados.keySet().iterator();
+            while (excedente-- > 0 && chaves.hasNext()) {
+                chaves.next();
+                chaves.remove();
+            }
+        } finally {
+            podando.set(false);
+        }
     }
 
-    // Extrai a data de expiração do token
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    // Cabeçalho e payload do token (sem a assinatura, que é a chave) e as claims já verificadas
+    private record TokenEmCache(String conteudo, TokenVerificado verificado) {
     }
 
-    // Verifica se o token está expirado
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    // Extrai o username do token JWT
+    public String extractUsername(String token) {
+        return verify(token).username();
     }
 
-    // Extrai uma claim específica do token
-    private <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    // Valida se o token JWT é válido para o usuário
+    public boolean isTokenValid(String token, UserDetails userDetails) {
+        TokenVerificado verificado = verify(token);
+        return verificado.username().equals(userDetails.getUsername()) && !verificado.expirado();
     }
 
     // Extrai as roles do token JWT
     public List<? extends GrantedAuthority> extractRoles(String token) {
-        final Claims claims = extractAllClaims(token);
-        List<String> roles = (List<String>) claims.get("roles");
+        return verify(token).authorities();
+    }
 
-        if (roles == null) {
+    @SuppressWarnings("unchecked")
+    private static List<String> extrairRoles(Claims claims) {
+        Object roles = claims.get("roles");
+        if (!(roles instanceof List<?>)) {
             return List.of();
         }
-
-        return roles.stream()
-                .map(SimpleGrantedAuthority::new)
-                .collect(Collectors.toList());
+        return List.copyOf((List<String>) roles);
     }
 
-    // Extrai todas as claims do token
-    private Claims extractAllClaims(String token) {
-        return Jwts
-                .parser()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    private static Long extrairEmitidoEmMillis(Claims claims) {
+        Object emitidoEm = claims.get(CLAIM_EMITIDO_MS);
+        return emitidoEm instanceof Number numero ? numero.longValue() : null;
     }
 
     // Constrói o token JWT com as claims e informações do usuário
     private String buildToken(Map<String, Object> extraClaims, UserDetails userDetails, long expiration) {
+        long agora = System.currentTimeMillis();
         return Jwts
                 .builder()
                 .claims(extraClaims)
+                .claim(CLAIM_EMITIDO_MS, agora)
+                .id(UUID.randomUUID().toString())
                 .subject(userDetails.getUsername())
-                .issuedAt(new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey())
+                .issuedAt(new Date(agora))
+                .expiration(new Date(agora + expiration))
+                .signWith(signInKey)
                 .compact();
     }
 
     // Obtém a chave secreta para assinar o token
-    private SecretKey getSignInKey() {
+    private static SecretKey criarChave(String secretKey) {
         byte[] keyBytes;
         try {
             keyBytes = Decoders.BASE64.decode(secretKey);
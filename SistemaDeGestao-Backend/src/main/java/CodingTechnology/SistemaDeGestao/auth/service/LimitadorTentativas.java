@@ -0,0 +1,50 @@
+package CodingTechnology.SistemaDeGestao.auth.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Token bucket no formato GCRA: cada faixa guarda só o "instante teórico de chegada" (TAT) e é
+// atualizada por CAS, sem travas. Chaves são distribuídas em faixas pelo hash; duas chaves na mesma
+// faixa dividem o limite, o que só torna o controle mais restritivo.
+final class LimitadorTentativas {
+
+    private final AtomicLongArray faixas;
+    private final int mascara;
+    private final long intervaloNanos;
+    private final long toleranciaNanos;
+    // Referência para que os instantes comecem em zero (System.nanoTime pode ser negativo)
+    private final long origem = System.nanoTime();
+
+    // taxa tentativas por período, permitindo rajadas de até "rajada" tentativas seguidas
+    LimitadorTentativas(int quantidadeFaixas, int taxa, long periodoNanos, int rajada) {
+        int tamanho = Integer.highestOneBit(Math.max(1, quantidadeFaixas - 1)) << 1;
+        this.faixas = new AtomicLongArray(tamanho);
+        this.mascara = tamanho - 1;
+        this.intervaloNanos = periodoNanos / Math.max(1, taxa);
+        this.toleranciaNanos = intervaloNanos * Math.max(0, rajada - 1);
+    }
+
+    // Consome uma tentativa; devolve 0 se permitida ou os nanos até a próxima tentativa permitida
+    long consumir(String chave) {
+        long agora = System.nanoTime() - origem;
+        int faixa = espalhar(chave.hashCode()) & mascara;
+        while (true) {
+            long tat = faixas.get(faixa);
+            long base = Math.max(tat, agora);
+            long novoTat = base + intervaloNanos;
+            long excesso = novoTat - agora - toleranciaNanos - intervaloNanos;
+            if (excesso > 0) {
+                return excesso;
+            }
+            if (faixas.compareAndSet(faixa, tat, novoTat)) {
+                return 0;
+            }
+        }
+    }
+
+    private static int espalhar(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        return h;
+    }
+}
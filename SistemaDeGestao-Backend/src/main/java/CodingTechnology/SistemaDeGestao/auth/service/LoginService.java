@@ -0,0 +1,83 @@
+package CodingTechnology.SistemaDeGestao.auth.service;
+
+import CodingTechnology.SistemaDeGestao.consultas.service.ContadorConsultas;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Login fora das threads do Tomcat: a verificação BCrypt roda em um executor limitado, com fila
+// limitada, e cada usuário e IP tem seu próprio limite de tentativas. Um pico de logins ocupa só
+// esse executor e não atrasa o restante da API.
+@Service
+public class LoginService {
+
+    private final AuthenticationManager authenticationManager;
+    private final ThreadPoolExecutor executor;
+    private final LimitadorTentativas limitePorUsuario;
+    private final LimitadorTentativas limitePorIp;
+
+    public LoginService(AuthenticationManager authenticationManager,
+            @Value("${application.security.login.threads:2}") int threads,
+            @Value("${application.security.login.capacidade-fila:64}") int capacidadeFila,
+            @Value("${application.security.login.throttle.faixas:4096}") int faixas,
+            @Value("${application.security.login.throttle.usuario-por-minuto:5}") int usuarioPorMinuto,
+            @Value("${application.security.login.throttle.usuario-rajada:5}") int usuarioRajada,
+            @Value("${application.security.login.throttle.ip-por-minuto:30}") int ipPorMinuto,
+            @Value("${application.security.login.throttle.ip-rajada:30}") int ipRajada) {
+        this.authenticationManager = authenticationManager;
+
+        AtomicInteger contador = new AtomicInteger();
+        // AbortPolicy: com a fila cheia a tentativa é recusada na hora (RejectedExecutionException)
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadeFila),
+                tarefa -> {
+                    Thread thread = new Thread(tarefa, "login-" + contador.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        long minuto = TimeUnit.MINUTES.toNanos(1);
+        this.limitePorUsuario = new LimitadorTentativas(faixas, usuarioPorMinuto, minuto, usuarioRajada);
+        this.limitePorIp = new LimitadorTentativas(faixas, ipPorMinuto, minuto, ipRajada);
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdownNow();
+    }
+
+    // Aplica os limites de tentativas e agenda a autenticação no executor de login.
+    // Lança TentativasExcedidasException (limite atingido) ou RejectedExecutionException (fila cheia).
+    public CompletableFuture<Authentication> autenticar(String username, String password, String ip) {
+        if (username == null || password == null) {
+            throw new IllegalArgumentException("Informe o usuário e a senha.");
+        }
+
+        verificarLimite(limitePorIp.consumir("ip:" + ip), "Muitas tentativas de login a partir deste endereço.");
+        verificarLimite(limitePorUsuario.consumir("u:" + username.toLowerCase(Locale.ROOT)),
+                "Muitas tentativas de login para este usuário.");
+
+        // A consulta do usuário roda no executor, mas conta para a requisição de login
+        return CompletableFuture.supplyAsync(ContadorConsultas.propagarFornecedor(
+                () -> authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(username, password))),
+                executor);
+    }
+
+    private static void verificarLimite(long esperaNanos, String mensagem) {
+        if (esperaNanos > 0) {
+            throw new TentativasExcedidasException(mensagem,
+                    Math.max(1, TimeUnit.NANOSECONDS.toSeconds(esperaNanos + 999_999_999L)));
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package CodingTechnology.SistemaDeGestao.auth.service;
+
+import CodingTechnology.SistemaDeGestao.auth.model.entities.RevogacaoToken;
+import CodingTechnology.SistemaDeGestao.auth.model.enums.TipoRevogacao;
+import CodingTechnology.SistemaDeGestao.auth.repository.RevogacaoTokenRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Revogação de tokens JWT (usuários excluídos, logout e logout forçado).
+// A tabela revogacoes_token é a fonte da verdade; a verificação por requisição usa apenas memória:
+// um filtro de Bloom descarta quase todos os tokens não revogados e os conjuntos exatos confirmam o resto.
+@Service
+public class RevogacaoTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RevogacaoTokenService.class);
+
+    private static final String PREFIXO_SUJEITO = "s:";
+    private static final String PREFIXO_TOKEN = "j:";
+    private static final double TAXA_FALSO_POSITIVO = 0.01;
+
+    private final RevogacaoTokenRepository revogacaoTokenRepository;
+    private final long jwtExpiration;
+    private final int capacidadeFiltro;
+
+    private final Object trava = new Object();
+    private volatile Estado estado;
+
+    public RevogacaoTokenService(RevogacaoTokenRepository revogacaoTokenRepository,
+            @Value("${application.security.jwt.expiration}") long jwtExpiration,
+            @Value("${application.security.revogacao.capacidade-filtro:10000}") int capacidadeFiltro) {
+        this.revogacaoTokenRepository = revogacaoTokenRepository;
+        this.jwtExpiration = jwtExpiration;
+        this.capacidadeFiltro = capacidadeFiltro;
+        this.estado = new Estado(new FiltroBloom(capacidadeFiltro, TAXA_FALSO_POSITIVO));
+    }
+
+    // Carrega as revogações persistidas antes de o filtro JWT atender requisições
+    @PostConstruct
+    public void inicializar() {
+        recarregar();
+    }
+
+    // Descarta revogações vencidas e reconstrói o filtro a partir da tabela, o que também
+    // traz revogações feitas por outras instâncias da aplicação
+    @Scheduled(fixedDelayString = "${application.security.revogacao.intervalo-recarga-ms:60000}",
+            initialDelayString = "${application.security.revogacao.intervalo-recarga-ms:60000}")
+    public void recarregar() {
+        LocalDateTime agora = LocalDateTime.now();
+        int removidas = revogacaoTokenRepository.excluirExpiradas(agora);
+        List<RevogacaoToken> vigentes = revogacaoTokenRepository.findByExpiraEmAfter(agora);
+
+        synchronized (trava) {
+            Estado novo = new Estado(new FiltroBloom(Math.max(capacidadeFiltro, vigentes.size() * 2),
+                    TAXA_FALSO_POSITIVO));
+            for (RevogacaoToken revogacao : vigentes) {
+                novo.registrar(revogacao.getTipo(), revogacao.getValor(), paraMillis(revogacao.getRevogadoEm()),
+                        paraMillis(revogacao.getExpiraEm()));
+            }
+            // Revogações feitas nesta instância durante a leitura da tabela não podem se perder
+            Estado anterior = estado;
+            anterior.sujeitos.forEach((sujeito, instante) -> novo.registrar(TipoRevogacao.SUJEITO, sujeito, instante,
+                    instante + jwtExpiration));
+            anterior.tokens.forEach((jti, expiraEm) -> novo.registrar(TipoRevogacao.TOKEN, jti, 0L, expiraEm));
+            novo.descartarVencidos(System.currentTimeMillis(), jwtExpiration);
+            estado = novo;
+        }
+        if (removidas > 0) {
+            log.debug("{} revogações expiradas removidas; {} vigentes", removidas, vigentes.size());
+        }
+    }
+
+    // Verificação por requisição, sem acesso ao banco
+    public boolean estaRevogado(JwtService.TokenVerificado token) {
+        Estado atual = estado;
+        if (token.id() != null && atual.filtro.talvezContenha(PREFIXO_TOKEN + token.id())
+                && atual.tokens.containsKey(token.id())) {
+            return true;
+        }
+        if (atual.filtro.talvezContenha(PREFIXO_SUJEITO + token.username())) {
+            Long revogadoEm = atual.sujeitos.get(token.username());
+            return revogadoEm != null && emitidoAntesDe(token, revogadoEm);
+        }
+        return false;
+    }
+
+    // Só tokens emitidos estritamente antes da revogação caem; um novo login logo depois continua válido.
+    // Tokens sem iat_ms só têm iat em segundos: os do mesmo segundo da revogação também caem.
+    private static boolean emitidoAntesDe(JwtService.TokenVerificado token, long revogadoEm) {
+        if (token.emitidoEmMillis() != null) {
+            return token.emitidoEmMillis() < revogadoEm;
+        }
+        return token.emitidoEm() == null || token.emitidoEm().getTime() / 1000 <= revogadoEm / 1000;
+    }
+
+    // Revoga um único token (logout)
+    public void revogarToken(JwtService.TokenVerificado token) {
+        if (token.id() == null) {
+            throw new IllegalArgumentException("Token sem identificador (jti) não pode ser revogado individualmente.");
+        }
+        Date expiracao = token.expiracao() != null ? token.expiracao()
+                : new Date(System.currentTimeMillis() + jwtExpiration);
+        persistir(TipoRevogacao.TOKEN, token.id(), System.currentTimeMillis(), expiracao.getTime());
+    }
+
+    // Revoga todos os tokens já emitidos para o usuário (exclusão ou logout forçado)
+    public void revogarUsuario(String username) {
+        long agora = System.currentTimeMillis();
+        persistir(TipoRevogacao.SUJEITO, username, agora, agora + jwtExpiration);
+    }
+
+    private void persistir(TipoRevogacao tipo, String valor, long revogadoEm, long expiraEm) {
+        RevogacaoToken revogacao = revogacaoTokenRepository.findByTipoAndValor(tipo, valor)
+                .orElseGet(() -> RevogacaoToken.builder().tipo(tipo).valor(valor).build());
+        revogacao.setRevogadoEm(paraData(revogadoEm));
+        revogacao.setExpiraEm(paraData(expiraEm));
+        revogacaoTokenRepository.save(revogacao);
+
+        // Dentro de uma transação, a memória só recebe a revogação depois do commit: um rollback não pode
+        // deixar revogado em memória o que nunca foi gravado
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    registrar(tipo, valor, revogadoEm, expiraEm);
+                }
+            });
+        } else {
+            registrar(tipo, valor, revogadoEm, expiraEm);
+        }
+    }
+
+    private void registrar(TipoRevogacao tipo, String valor, long revogadoEm, long expiraEm) {
+        synchronized (trava) {
+            estado.registrar(tipo, valor, revogadoEm, expiraEm);
+        }
+    }
+
+    private static long paraMillis(LocalDateTime data) {
+        return data.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime paraData(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    // Filtro e conjuntos exatos: usuário -> instante da revogação e jti -> expiração do token, em millis
+    private static final class Estado {
+        private final FiltroBloom filtro;
+        private final Map<String, Long> sujeitos = new ConcurrentHashMap<>();
+        private final Map<String, Long> tokens = new ConcurrentHashMap<>();
+
+        private Estado(FiltroBloom filtro) {
+            this.filtro = filtro;
+        }
+
+        // O filtro é marcado antes do conjunto exato, para que uma leitura concorrente nunca o veja negativo
+        // depois de o valor já estar no conjunto
+        private void registrar(TipoRevogacao tipo, String valor, long revogadoEm, long expiraEm) {
+            if (tipo == TipoRevogacao.SUJEITO) {
+                filtro.adicionar(PREFIXO_SUJEITO + valor);
+                sujeitos.merge(valor, revogadoEm, Math::max);
+            } else {
+                filtro.adicionar(PREFIXO_TOKEN + valor);
+                tokens.merge(valor, expiraEm, Math::max);
+            }
+        }
+
+        // Descarta o que já não afeta nenhum token válido
+        private void descartarVencidos(long agora, long jwtExpiration) {
+            sujeitos.values().removeIf(revogadoEm -> revogadoEm + jwtExpiration <= agora);
+            tokens.values().removeIf(expiraEm -> expiraEm <= agora);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package CodingTechnology.SistemaDeGestao.auth.service;
+
+// Limite de tentativas de login atingido para o usuário ou para o IP
+public class TentativasExcedidasException extends RuntimeException {
+
+    private final long retryAfterSegundos;
+
+    public TentativasExcedidasException(String message, long retryAfterSegundos) {
+        super(message);
+        this.retryAfterSegundos = retryAfterSegundos;
+    }
+
+    public long getRetryAfterSegundos() {
+        return retryAfterSegundos;
+    }
+}
@@ -0,0 +1,40 @@
+package CodingTechnology.SistemaDeGestao.config;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+import javax.sql.DataSource;
+
+// Modo de execução em virtual threads (perfil "virtual"): spring.threads.virtual.enabled cobre o
+// Tomcat, o executor de @Async (carga inicial da previsão de consumo) e o agendador de @Scheduled;
+// aqui o DataSource ganha o limite de conexões simultâneas, alinhado ao pool do Hikari.
+@Configuration
+@EnableAsync
+public class ExecucaoVirtualConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(name = "application.datasource.limite-concorrencia.habilitado", havingValue = "true")
+    public static BeanPostProcessor limiteConexoesPostProcessor(Environment environment) {
+        // Sem limite explícito, usa o tamanho máximo do pool (padrão do Hikari: 10)
+        int permissoes = environment.getProperty("application.datasource.limite-concorrencia.permissoes",
+                Integer.class,
+                environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10));
+        long esperaMillis = environment.getProperty("application.datasource.limite-concorrencia.espera-ms",
+                Long.class, 5000L);
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                if (bean instanceof DataSource dataSource && !(bean instanceof LimiteConexoesDataSource)) {
+                    return new LimiteConexoesDataSource(dataSource, permissoes, esperaMillis);
+                }
+                return bean;
+            }
+        };
+    }
+}
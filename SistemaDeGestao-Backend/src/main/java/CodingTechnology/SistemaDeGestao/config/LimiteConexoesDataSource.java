@@ -0,0 +1,99 @@
+package CodingTechnology.SistemaDeGestao.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Limita quantas conexões podem estar emprestadas ao mesmo tempo. Com virtual threads o número de
+// requisições simultâneas deixa de ser limitado pelo pool do Tomcat; o semáforo (justo) faz as
+// threads excedentes estacionarem aqui, em ordem, em vez de disputarem o pool do Hikari.
+public class LimiteConexoesDataSource extends DelegatingDataSource {
+
+    private final Semaphore permissoes;
+    private final long esperaMillis;
+
+    public LimiteConexoesDataSource(DataSource alvo, int permissoes, long esperaMillis) {
+        super(alvo);
+        this.permissoes = new Semaphore(permissoes, true);
+        this.esperaMillis = esperaMillis;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        adquirir();
+        return obter(() -> super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        adquirir();
+        return obter(() -> super.getConnection(username, password));
+    }
+
+    public int getPermissoesDisponiveis() {
+        return permissoes.availablePermits();
+    }
+
+    public int getThreadsAguardando() {
+        return permissoes.getQueueLength();
+    }
+
+    private void adquirir() throws SQLException {
+        try {
+            if (!permissoes.tryAcquire(esperaMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException(
+                        "Limite de conexões simultâneas atingido; espera de " + esperaMillis + " ms esgotada");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrompido aguardando conexão", e);
+        }
+    }
+
+    // A permissão é devolvida quando a conexão é fechada (uma única vez) ou se a obtenção falhar
+    private Connection obter(FonteConexao fonte) throws SQLException {
+        Connection conexao;
+        try {
+            conexao = fonte.obter();
+        } catch (SQLException | RuntimeException e) {
+            permissoes.release();
+            throw e;
+        }
+
+        AtomicBoolean liberada = new AtomicBoolean();
+        InvocationHandler handler = (proxy, metodo, argumentos) -> {
+            if ("close".equals(metodo.getName()) && metodo.getParameterCount() == 0) {
+                try {
+                    return metodo.invoke(conexao, argumentos);
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                } finally {
+                    if (liberada.compareAndSet(false, true)) {
+                        permissoes.release();
+                    }
+                }
+            }
+            try {
+                return metodo.invoke(conexao, argumentos);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        };
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, handler);
+    }
+
+    @FunctionalInterface
+    private interface FonteConexao {
+        Connection obter() throws SQLException;
+    }
+}
@@ -0,0 +1,35 @@
+package CodingTechnology.SistemaDeGestao.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
+
+// Métricas Micrometer expostas em /actuator/prometheus (apenas ADMIN).
+// Os padrões de exposição ficam em metricas.properties e podem ser sobrescritos no application.properties.
+@Configuration
+@PropertySource("classpath:metricas.properties")
+public class MetricasConfiguration {
+
+    // Habilita @Timed nos serviços (timer por método, com contagem e tag de exceção)
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    // Estatísticas do Hibernate (consultas, carregamento de entidades, cache de segundo nível),
+    // publicadas pelo hibernate-micrometer.
+    // hibernate.log_session_metrics acompanha generate_statistics por padrão e escreveria um bloco
+    // "Session Metrics" por sessão no log; as métricas vão só para o Micrometer.
+    @Bean
+    public HibernatePropertiesCustomizer estatisticasHibernate(
+            @Value("${application.metricas.hibernate-estatisticas:true}") boolean habilitado) {
+        return propriedades -> {
+            propriedades.put("hibernate.generate_statistics", habilitado);
+            propriedades.put("hibernate.log_session_metrics", false);
+        };
+    }
+}
@@ -0,0 +1,10 @@
+package CodingTechnology.SistemaDeGestao.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Habilita as tarefas agendadas (@Scheduled) da aplicação
+@Configuration
+@EnableScheduling
+public class SchedulingConfiguration {
+}
@@ -1,6 +1,8 @@
 package CodingTechnology.SistemaDeGestao.config;
 
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -11,6 +13,7 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -19,6 +22,8 @@ import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 import CodingTechnology.SistemaDeGestao.auth.security.JwtAuthFilter;
+import CodingTechnology.SistemaDeGestao.auth.security.UserDetailsCache;
+import CodingTechnology.SistemaDeGestao.user.model.entities.User;
 import CodingTechnology.SistemaDeGestao.user.repository.UserRepository;
 
 import org.springframework.web.cors.CorsConfiguration;
@@ -34,6 +39,16 @@ public class SecurityConfiguration {
 
     private final UserRepository userRepository;
 
+    @Value("${application.security.user-cache.ttl-segundos:300}")
+    private long userCacheTtlSegundos;
+
+    @Value("${application.security.user-cache.tamanho-maximo:1000}")
+    private int userCacheTamanhoMaximo;
+
+    // Custo do BCrypt (log2 das rodadas); hashes com custo menor são refeitos no próximo login
+    @Value("${application.security.bcrypt.forca:10}")
+    private int bcryptForca;
+
     @Bean
     public SecurityFilterChain filterChain(
             HttpSecurity http,
@@ -46,6 +61,9 @@ public class SecurityConfiguration {
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/error").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
+                        // Retomada de respostas assíncronas (SSE), cuja requisição original já foi autorizada
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .anyRequest().authenticated())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authenticationProvider(authenticationProvider)
@@ -59,17 +77,19 @@ public class SecurityConfiguration {
         CorsConfiguration configuration = new CorsConfiguration();
         configuration.setAllowedOriginPatterns(List.of("*"));
         configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
-        configuration.setAllowedHeaders(List.of("Authorization", "Content-Type"));
+        configuration.setAllowedHeaders(List.of("Authorization", "Content-Type", "Idempotency-Key"));
         configuration.setAllowCredentials(true);
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
         return source;
     }
 
+    // Consulta de usuários com cache, invalidado pelo UserService a cada alteração
     @Bean
-    public UserDetailsService userDetailsService() {
-        return username -> userRepository.findByUsername(username)
+    public UserDetailsCache userDetailsService() {
+        UserDetailsService consulta = username -> userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        return new UserDetailsCache(consulta, userCacheTtlSegundos, userCacheTamanhoMaximo);
     }
 
     @Bean
@@ -77,9 +97,23 @@ public class SecurityConfiguration {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService());
         authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setUserDetailsPasswordService(userDetailsPasswordService());
         return authProvider;
     }
 
+    // Grava o hash refeito com o custo atual após um login bem-sucedido
+    @Bean
+    public UserDetailsPasswordService userDetailsPasswordService() {
+        return (userDetails, novaSenhaCodificada) -> {
+            User user = userRepository.findByUsername(userDetails.getUsername())
+                    .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+            user.setPassword(novaSenhaCodificada);
+            User salvo = userRepository.save(user);
+            userDetailsService().invalidar(salvo.getUsername());
+            return salvo;
+        };
+    }
+
     @Bean
     public AuthenticationManager authenticationManager(AuthenticationConfiguration config) throws Exception {
         return config.getAuthenticationManager();
@@ -87,6 +121,6 @@ public class SecurityConfiguration {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(bcryptForca);
     }
 }
\ No newline at end of file
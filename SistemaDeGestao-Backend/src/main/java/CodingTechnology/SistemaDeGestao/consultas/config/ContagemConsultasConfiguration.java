@@ -0,0 +1,32 @@
+package CodingTechnology.SistemaDeGestao.consultas.config;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
+
+import javax.sql.DataSource;
+
+@Configuration
+@EnableConfigurationProperties(OrcamentoConsultasProperties.class)
+@PropertySource("classpath:consultas.properties")
+public class ContagemConsultasConfiguration {
+
+    // Envolve o DataSource para contar os comandos SQL de cada requisição
+    @Bean
+    @ConditionalOnProperty(name = "application.consultas.habilitado", havingValue = "true", matchIfMissing = true)
+    public static BeanPostProcessor contagemConsultasPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ContagemConsultasDataSource)) {
+                    return new ContagemConsultasDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,74 @@
+package CodingTechnology.SistemaDeGestao.consultas.config;
+
+import CodingTechnology.SistemaDeGestao.consultas.service.ContadorConsultas;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// Conta cada comando SQL executado (execute*, incluindo executeBatch como um comando) e mede o tempo
+// gasto no banco, creditando na requisição da thread atual (ContadorConsultas)
+public class ContagemConsultasDataSource extends DelegatingDataSource {
+
+    public ContagemConsultasDataSource(DataSource alvo) {
+        super(alvo);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return instrumentarConexao(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return instrumentarConexao(super.getConnection(username, password));
+    }
+
+    private static Connection instrumentarConexao(Connection conexao) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, (proxy, metodo, argumentos) -> {
+                    Object resultado = invocar(conexao, metodo, argumentos);
+                    if (resultado instanceof Statement statement && criaStatement(metodo)) {
+                        return instrumentarStatement(statement, metodo.getReturnType());
+                    }
+                    return resultado;
+                });
+    }
+
+    private static boolean criaStatement(Method metodo) {
+        String nome = metodo.getName();
+        return nome.equals("createStatement") || nome.equals("prepareStatement") || nome.equals("prepareCall");
+    }
+
+    private static Object instrumentarStatement(Statement statement, Class<?> tipo) {
+        Class<?> interfaceStatement = tipo == CallableStatement.class ? CallableStatement.class
+                : tipo == PreparedStatement.class ? PreparedStatement.class : Statement.class;
+        return Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[] { interfaceStatement },
+                (proxy, metodo, argumentos) -> {
+                    if (!metodo.getName().startsWith("execute")) {
+                        return invocar(statement, metodo, argumentos);
+                    }
+                    long inicio = System.nanoTime();
+                    try {
+                        return invocar(statement, metodo, argumentos);
+                    } finally {
+                        ContadorConsultas.registrar(System.nanoTime() - inicio);
+                    }
+                });
+    }
+
+    private static Object invocar(Object alvo, Method metodo, Object[] argumentos) throws Throwable {
+        try {
+            return metodo.invoke(alvo, argumentos);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
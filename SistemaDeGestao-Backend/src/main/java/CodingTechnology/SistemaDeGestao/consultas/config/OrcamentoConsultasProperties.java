@@ -0,0 +1,26 @@
+package CodingTechnology.SistemaDeGestao.consultas.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Orçamento de comandos SQL por endpoint, identificado por "MÉTODO padrão" do mapeamento, por exemplo:
+//   application.consultas.orcamentos[GET /api/receitas/listar]=3
+// Endpoints sem entrada usam o orçamento padrão.
+@Data
+@ConfigurationProperties(prefix = "application.consultas")
+public class OrcamentoConsultasProperties {
+
+    // Instrumenta o DataSource e adiciona os cabeçalhos X-Query-Count e Server-Timing
+    private boolean habilitado = true;
+
+    private int orcamentoPadrao = 20;
+
+    private Map<String, Integer> orcamentos = new LinkedHashMap<>();
+
+    public int orcamentoPara(String endpoint) {
+        return orcamentos.getOrDefault(endpoint, orcamentoPadrao);
+    }
+}
@@ -0,0 +1,185 @@
+package CodingTechnology.SistemaDeGestao.consultas.filter;
+
+import CodingTechnology.SistemaDeGestao.consultas.config.OrcamentoConsultasProperties;
+import CodingTechnology.SistemaDeGestao.consultas.service.ContadorConsultas;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+
+// Conta os comandos SQL de cada requisição, expõe a contagem nos cabeçalhos X-Query-Count e Server-Timing
+// e avisa no log quando o endpoint passa do seu orçamento (sinal típico de N+1).
+// Os cabeçalhos são gravados antes do primeiro byte do corpo; o log usa a contagem final.
+// Em requisições assíncronas (login com CompletableFuture, SSE) a contagem fica em um atributo da requisição,
+// é retomada no despacho assíncrono e o orçamento só é verificado quando a requisição termina.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@ConditionalOnProperty(name = "application.consultas.habilitado", havingValue = "true", matchIfMissing = true)
+public class ContagemConsultasFilter extends OncePerRequestFilter {
+
+    public static final String CABECALHO_CONSULTAS = "X-Query-Count";
+    public static final String CABECALHO_TEMPOS = "Server-Timing";
+
+    private static final Logger log = LoggerFactory.getLogger(ContagemConsultasFilter.class);
+
+    private static final String ATRIBUTO_CONTAGEM = ContagemConsultasFilter.class.getName() + ".CONTAGEM";
+
+    private final OrcamentoConsultasProperties properties;
+
+    public ContagemConsultasFilter(OrcamentoConsultasProperties properties) {
+        this.properties = properties;
+    }
+
+    // A resposta de uma requisição assíncrona é escrita no despacho assíncrono, que também passa por aqui
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ContadorConsultas.Contagem contagem = (ContadorConsultas.Contagem) request.getAttribute(ATRIBUTO_CONTAGEM);
+        if (contagem == null) {
+            contagem = ContadorConsultas.iniciar();
+            request.setAttribute(ATRIBUTO_CONTAGEM, contagem);
+        } else {
+            ContadorConsultas.continuar(contagem);
+        }
+
+        RespostaComContagem resposta = new RespostaComContagem(response, contagem);
+        boolean assincrono = false;
+        try {
+            filterChain.doFilter(request, resposta);
+            assincrono = request.isAsyncStarted();
+            if (assincrono) {
+                // O trabalho continua em outra thread: cabeçalhos no despacho seguinte, orçamento ao concluir
+                aoConcluir(request, contagem);
+            } else {
+                // Respostas sem corpo (204, 201 vazio) não passam por getOutputStream/getWriter
+                resposta.gravarCabecalhos();
+            }
+        } finally {
+            ContadorConsultas.encerrar();
+            if (!assincrono && !isAsyncDispatch(request)) {
+                verificarOrcamento(request, contagem);
+            }
+        }
+    }
+
+    // Um único listener por requisição, registrado no primeiro despacho que a torna assíncrona
+    private void aoConcluir(HttpServletRequest request, ContadorConsultas.Contagem contagem) {
+        String atributoListener = ATRIBUTO_CONTAGEM + ".LISTENER";
+        if (request.getAttribute(atributoListener) != null) {
+            return;
+        }
+        request.setAttribute(atributoListener, Boolean.TRUE);
+        request.getAsyncContext().addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event) {
+                verificarOrcamento(request, contagem);
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+    }
+
+    private void verificarOrcamento(HttpServletRequest request, ContadorConsultas.Contagem contagem) {
+        String endpoint = endpoint(request);
+        int orcamento = properties.orcamentoPara(endpoint);
+        if (contagem.getConsultas() > orcamento) {
+            log.warn("{} executou {} comandos SQL (orçamento {}) em {} ms de banco", endpoint,
+                    contagem.getConsultas(), orcamento, String.format(Locale.ROOT, "%.1f", contagem.getTempoBancoMillis()));
+        }
+    }
+
+    // "MÉTODO padrão" do mapeamento que atendeu a requisição, ou a URI quando não houve mapeamento
+    public static String endpoint(HttpServletRequest request) {
+        Object padrao = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (padrao != null ? padrao : request.getRequestURI());
+    }
+
+    // Grava os cabeçalhos de contagem uma única vez, no último momento em que ainda é possível.
+    // Nos despachos assíncronos a resposta pode chegar embrulhada duas vezes: o cabeçalho já presente
+    // evita a gravação repetida.
+    private static final class RespostaComContagem extends HttpServletResponseWrapper {
+
+        private final ContadorConsultas.Contagem contagem;
+
+        private RespostaComContagem(HttpServletResponse response, ContadorConsultas.Contagem contagem) {
+            super(response);
+            this.contagem = contagem;
+        }
+
+        private void gravarCabecalhos() {
+            if (isCommitted() || containsHeader(CABECALHO_CONSULTAS)) {
+                return;
+            }
+            setHeader(CABECALHO_CONSULTAS, Integer.toString(contagem.getConsultas()));
+            addHeader(CABECALHO_TEMPOS, String.format(Locale.ROOT, "db;dur=%.1f;desc=\"%d consultas\", app;dur=%.1f",
+                    contagem.getTempoBancoMillis(), contagem.getConsultas(), contagem.getTempoTotalMillis()));
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            gravarCabecalhos();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            gravarCabecalhos();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            gravarCabecalhos();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            gravarCabecalhos();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            gravarCabecalhos();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            gravarCabecalhos();
+            super.sendRedirect(location);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package CodingTechnology.SistemaDeGestao.consultas.service;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Contagem de comandos SQL e tempo de banco da requisição em andamento na thread atual.
+// O filtro abre e fecha a contagem; o DataSource instrumentado só soma quando há uma aberta.
+// Trabalho entregue a outras threads (executores) leva a contagem com propagarTarefa ou propagarFornecedor.
+public final class ContadorConsultas {
+
+    private static final ThreadLocal<Contagem> ATUAL = new ThreadLocal<>();
+
+    private ContadorConsultas() {
+    }
+
+    public static Contagem iniciar() {
+        Contagem contagem = new Contagem();
+        ATUAL.set(contagem);
+        return contagem;
+    }
+
+    // Retoma na thread atual uma contagem aberta por outra (despacho assíncrono da mesma requisição)
+    public static void continuar(Contagem contagem) {
+        ATUAL.set(contagem);
+    }
+
+    public static void encerrar() {
+        ATUAL.remove();
+    }
+
+    public static void registrar(long duracaoNanos) {
+        Contagem contagem = ATUAL.get();
+        if (contagem != null) {
+            contagem.consultas.incrementAndGet();
+            contagem.tempoBancoNanos.addAndGet(duracaoNanos);
+        }
+    }
+
+    // Executa a tarefa em outra thread somando na contagem da requisição que a criou
+    public static <T> Callable<T> propagarTarefa(Callable<T> tarefa) {
+        Contagem contagem = ATUAL.get();
+        if (contagem == null) {
+            return tarefa;
+        }
+        return () -> {
+            Contagem anterior = ATUAL.get();
+            ATUAL.set(contagem);
+            try {
+                return tarefa.call();
+            } finally {
+                restaurar(anterior);
+            }
+        };
+    }
+
+    public static <T> Supplier<T> propagarFornecedor(Supplier<T> tarefa) {
+        Contagem contagem = ATUAL.get();
+        if (contagem == null) {
+            return tarefa;
+        }
+        return () -> {
+            Contagem anterior = ATUAL.get();
+            ATUAL.set(contagem);
+            try {
+                return tarefa.get();
+            } finally {
+                restaurar(anterior);
+            }
+        };
+    }
+
+    private static void restaurar(Contagem anterior) {
+        if (anterior != null) {
+            ATUAL.set(anterior);
+        } else {
+            ATUAL.remove();
+        }
+    }
+
+    // Acumulado de uma requisição; pode receber comandos de várias threads ao mesmo tempo
+    public static final class Contagem {
+        private final long inicio = System.nanoTime();
+        private final AtomicInteger consultas = new AtomicInteger();
+        private final AtomicLong tempoBancoNanos = new AtomicLong();
+
+        public int getConsultas() {
+            return consultas.get();
+        }
+
+        public double getTempoBancoMillis() {
+            return tempoBancoNanos.get() / 1_000_000.0;
+        }
+
+        public double getTempoTotalMillis() {
+            return (System.nanoTime() - inicio) / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package CodingTechnology.SistemaDeGestao.dashboard.DTO;
+
+import CodingTechnology.SistemaDeGestao.Produtos.model.enums.UnidadeMedida;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ConsumoIngredienteDTO {
+    private Long produtoId;
+    private String produtoNome;
+    private Double quantidadeConsumida; // Na unidade do estoque do produto
+    private UnidadeMedida unidadeMedida;
+    private Double custoConsumido;
+}
@@ -0,0 +1,12 @@
+package CodingTechnology.SistemaDeGestao.dashboard.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ItemRankingDTO {
+    private Long id;
+    private String nome;
+    private Double valor;
+}
@@ -0,0 +1,17 @@
+package CodingTechnology.SistemaDeGestao.dashboard.DTO;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class MetricasDashboardDTO {
+    private long versao;
+    private long totalProducts;
+    private double totalStockValue;
+    private long totalRecipes;
+    private long totalProductions;
+    private long totalUsers;
+    private double totalCost;
+    private double totalProfit;
+}
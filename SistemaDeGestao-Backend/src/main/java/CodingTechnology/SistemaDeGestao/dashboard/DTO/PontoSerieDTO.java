@@ -0,0 +1,16 @@
+package CodingTechnology.SistemaDeGestao.dashboard.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+public class PontoSerieDTO {
+    private LocalDate inicio; // Primeiro dia do intervalo (dia, semana ou mês)
+    private Long quantidadeProducoes;
+    private Long quantidadeLotes;
+    private Double custoTotal;
+    private Double lucroEstimado;
+}
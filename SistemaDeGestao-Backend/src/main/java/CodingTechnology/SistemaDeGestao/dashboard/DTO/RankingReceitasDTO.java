@@ -0,0 +1,14 @@
+package CodingTechnology.SistemaDeGestao.dashboard.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class RankingReceitasDTO {
+    private List<ItemRankingDTO> maisLucrativas;
+    private List<ItemRankingDTO> maiorCusto;
+    private List<ItemRankingDTO> maiorVolume; // Quantidade produzida
+}
@@ -0,0 +1,12 @@
+package CodingTechnology.SistemaDeGestao.dashboard.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class TotaisFinanceirosDTO {
+    private Double totalLucro;
+    private Double totalCusto;
+    private Long quantidadeProducoes;
+}
@@ -1,20 +1,48 @@
 package CodingTechnology.SistemaDeGestao.dashboard.controller;
 
+import CodingTechnology.SistemaDeGestao.dashboard.service.AnaliseProducaoService;
 import CodingTechnology.SistemaDeGestao.dashboard.service.DashboardService;
+import CodingTechnology.SistemaDeGestao.dashboard.service.DashboardStreamService;
 import CodingTechnology.SistemaDeGestao.dashboard.DTO.DashboardStatsDTO;
+import CodingTechnology.SistemaDeGestao.dashboard.DTO.PontoSerieDTO;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.http.MediaType;
 import lombok.RequiredArgsConstructor;
 
+import java.time.LocalDate;
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/dashboard")
 @RequiredArgsConstructor
 public class DashboardController {
     private final DashboardService dashboardService;
+    private final DashboardStreamService dashboardStreamService;
+    private final AnaliseProducaoService analiseProducaoService;
 
     @GetMapping("/stats")
     public DashboardStatsDTO getStats() {
         return dashboardService.getStats();
     }
+
+    // Stream (SSE) das métricas do dashboard: um snapshot ao conectar e depois apenas as variações
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream() {
+        return dashboardStreamService.conectar();
+    }
+
+    // Série de custo, lucro e lotes por dia, semana ou mês (bucket = day | week | month)
+    @GetMapping("/series")
+    public List<PontoSerieDTO> getSeries(
+            @RequestParam(defaultValue = "day") String bucket,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long receitaId) {
+        return analiseProducaoService.calcularSerie(bucket, from, to, receitaId);
+    }
 }
@@ -0,0 +1,41 @@
+package CodingTechnology.SistemaDeGestao.dashboard.controller;
+
+import CodingTechnology.SistemaDeGestao.dashboard.DTO.ConsumoIngredienteDTO;
+import CodingTechnology.SistemaDeGestao.dashboard.DTO.RankingReceitasDTO;
+import CodingTechnology.SistemaDeGestao.dashboard.service.RankingService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/dashboard/rankings")
+@RequiredArgsConstructor
+public class DashboardRankingController {
+
+    private final RankingService rankingService;
+
+    // Top N receitas do período por lucro, custo e quantidade produzida
+    @GetMapping("/receitas")
+    public ResponseEntity<RankingReceitasDTO> rankingReceitas(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim,
+            @RequestParam(required = false) Integer limite) {
+        return ResponseEntity.ok(rankingService.rankingReceitas(dataInicio, dataFim, limite));
+    }
+
+    // Top N ingredientes do período pelo custo consumido
+    @GetMapping("/ingredientes")
+    public ResponseEntity<List<ConsumoIngredienteDTO>> rankingIngredientes(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim,
+            @RequestParam(required = false) Integer limite) {
+        return ResponseEntity.ok(rankingService.rankingIngredientes(dataInicio, dataFim, limite));
+    }
+}
@@ -0,0 +1,370 @@
+package CodingTechnology.SistemaDeGestao.dashboard.service;
+
+import CodingTechnology.SistemaDeGestao.dashboard.DTO.PontoSerieDTO;
+import CodingTechnology.SistemaDeGestao.producao.event.ProducaoEstornadaEvent;
+import CodingTechnology.SistemaDeGestao.producao.event.ProducaoRegistradaEvent;
+import CodingTechnology.SistemaDeGestao.producao.service.ArquivoProducaoService;
+import jakarta.annotation.PostConstruct;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+// Cópia colunar em memória dos fatos de produção (dia, receita, lotes, custo, lucro), para séries do dashboard
+@Timed("servico.dashboard")
+@Service
+public class AnaliseProducaoService {
+
+    private static final Logger log = LoggerFactory.getLogger(AnaliseProducaoService.class);
+
+    private static final long MILLIS_POR_DIA = 86_400_000L;
+
+    // Linhas por tarefa na varredura paralela
+    private static final int TAMANHO_BLOCO = 1 << 16;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ArquivoProducaoService arquivoProducaoService;
+    private final int paralelismoCarga;
+    private final int maximoDias;
+
+    // Substituída a cada inclusão ou estorno; os arrays só são realocados quando a capacidade acaba
+    private volatile Colunas colunas = new Colunas(new Carga(0), new BitSet());
+
+    public AnaliseProducaoService(JdbcTemplate jdbcTemplate,
+            ArquivoProducaoService arquivoProducaoService,
+            @Value("${application.dashboard.analise.paralelismo-carga:4}") int paralelismoCarga,
+            @Value("${application.dashboard.analise.max-dias:3660}") int maximoDias) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.arquivoProducaoService = arquivoProducaoService;
+        this.paralelismoCarga = paralelismoCarga;
+        this.maximoDias = maximoDias;
+    }
+
+    // Carrega o arquivo e a tabela de produções; a tabela é lida em faixas de id, em paralelo
+    @PostConstruct
+    public void carregar() {
+        long inicio = System.currentTimeMillis();
+
+        Carga arquivo = new Carga(1024);
+        arquivoProducaoService.percorrerArquivo((id, data, receitaId, lotes, custo, lucro, descontado) -> {
+            if (descontado) {
+                arquivo.adicionar(id, (int) Math.floorDiv(data, MILLIS_POR_DIA), receitaId, lotes,
+                        Double.isNaN(custo) ? 0.0 : custo, Double.isNaN(lucro) ? 0.0 : lucro);
+            }
+        });
+
+        // Uma produção arquivada durante a carga pode aparecer nas duas fontes; vale a do arquivo
+        long[] idsArquivados = Arrays.copyOf(arquivo.ids, arquivo.tamanho);
+        Arrays.sort(idsArquivados);
+
+        List<Carga> partes = new ArrayList<>();
+        partes.add(arquivo);
+        partes.addAll(carregarTabela(idsArquivados));
+
+        int total = partes.stream().mapToInt(parte -> parte.tamanho).sum();
+        Carga completa = new Carga(total);
+        partes.forEach(completa::adicionarTodos);
+
+        synchronized (this) {
+            colunas = new Colunas(completa, new BitSet());
+        }
+        log.info("Análise de produções: {} produções carregadas em {} ms", total,
+                System.currentTimeMillis() - inicio);
+    }
+
+    private List<Carga> carregarTabela(long[] idsArquivados) {
+        Long[] limites = jdbcTemplate.queryForObject("SELECT MIN(id), MAX(id) FROM producoes",
+                (rs, rowNum) -> new Long[] { rs.getObject(1, Long.class), rs.getObject(2, Long.class) });
+        if (limites == null || limites[0] == null) {
+            return List.of();
+        }
+
+        long primeiro = limites[0];
+        long passo = Math.max(1, (limites[1] - primeiro + paralelismoCarga) / paralelismoCarga);
+
+        ExecutorService executor = Executors.newFixedThreadPool(paralelismoCarga);
+        try {
+            List<Future<Carga>> tarefas = new ArrayList<>();
+            for (long de = primeiro; de <= limites[1]; de += passo) {
+                final long faixaInicio = de;
+                final long faixaFim = de + passo;
+                tarefas.add(executor.submit(() -> carregarFaixa(faixaInicio, faixaFim, idsArquivados)));
+            }
+
+            List<Carga> partes = new ArrayList<>();
+            for (Future<Carga> tarefa : tarefas) {
+                partes.add(tarefa.get());
+            }
+            return partes;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Carga da análise de produções interrompida.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Falha ao carregar a análise de produções: " + e.getCause().getMessage(),
+                    e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Carga carregarFaixa(long idInicio, long idFim, long[] idsArquivados) {
+        Carga carga = new Carga(1024);
+        jdbcTemplate.query("SELECT id, data_producao, receita_id, quantidade_lotes, custo_total, lucro_estimado "
+                + "FROM producoes WHERE id >= ? AND id < ? AND estoque_descontado = TRUE", rs -> {
+                    long id = rs.getLong(1);
+                    if (Arrays.binarySearch(idsArquivados, id) >= 0) {
+                        return;
+                    }
+                    carga.adicionar(id,
+                            (int) rs.getTimestamp(2).toLocalDateTime().toLocalDate().toEpochDay(),
+                            rs.getLong(3),
+                            rs.getInt(4),
+                            rs.getDouble(5),
+                            rs.getDouble(6));
+                }, idInicio, idFim);
+        return carga;
+    }
+
+    // Inclui a produção registrada, após o commit
+    @TransactionalEventListener
+    public synchronized void aoRegistrarProducao(ProducaoRegistradaEvent evento) {
+        Colunas atual = colunas;
+        Carga carga = atual.carga;
+        if (atual.tamanho == carga.ids.length) {
+            Carga maior = new Carga(Math.max(1024, carga.ids.length * 2));
+            maior.adicionarTodos(carga, atual.tamanho);
+            carga = maior;
+        }
+
+        carga.adicionar(evento.producaoId(),
+                (int) evento.dataProducao().toLocalDate().toEpochDay(),
+                evento.receitaId(),
+                evento.quantidadeLotes() != null ? evento.quantidadeLotes() : 0,
+                evento.custoTotal() != null ? evento.custoTotal() : 0.0,
+                evento.lucroEstimado() != null ? evento.lucroEstimado() : 0.0);
+        colunas = new Colunas(carga, atual.removidas);
+    }
+
+    // Retira a produção estornada das séries publicando novas colunas com a linha marcada como removida;
+    // as linhas já publicadas nunca são alteradas, pois podem estar em uso por uma varredura
+    @TransactionalEventListener
+    public synchronized void aoEstornarProducao(ProducaoEstornadaEvent evento) {
+        Colunas atual = colunas;
+        long id = evento.producaoId();
+        // Estornos costumam ser de produções recentes: procura do fim para o início
+        for (int i = atual.tamanho - 1; i >= 0; i--) {
+            if (atual.carga.ids[i] == id) {
+                BitSet removidas = (BitSet) atual.removidas.clone();
+                removidas.set(i);
+                colunas = new Colunas(atual.carga, removidas);
+                return;
+            }
+        }
+    }
+
+    // Série de produções, lotes, custo e lucro por dia, semana ou mês, sem consultar o banco
+    public List<PontoSerieDTO> calcularSerie(String intervalo, LocalDate de, LocalDate ate, Long receitaId) {
+        if (de == null || ate == null) {
+            throw new IllegalArgumentException("Informe a data inicial e a data final do período.");
+        }
+        if (ate.isBefore(de)) {
+            throw new IllegalArgumentException("A data final não pode ser anterior à data inicial.");
+        }
+        long dias = ChronoUnit.DAYS.between(de, ate) + 1;
+        if (dias > maximoDias) {
+            throw new IllegalArgumentException("O período não pode ultrapassar " + maximoDias + " dias.");
+        }
+
+        // Índice do intervalo de cada dia do período, calculado uma vez fora da varredura
+        int[] baldePorDia = new int[(int) dias];
+        List<LocalDate> inicios = new ArrayList<>();
+        LocalDate inicioAtual = null;
+        for (int d = 0; d < dias; d++) {
+            LocalDate inicioBalde = inicioDoBalde(intervalo, de.plusDays(d));
+            if (!inicioBalde.equals(inicioAtual)) {
+                inicioAtual = inicioBalde;
+                inicios.add(inicioBalde);
+            }
+            baldePorDia[d] = inicios.size() - 1;
+        }
+
+        Colunas atual = colunas;
+        int primeiroDia = (int) de.toEpochDay();
+        int baldes = inicios.size();
+        int blocos = (atual.tamanho + TAMANHO_BLOCO - 1) / TAMANHO_BLOCO;
+
+        Acumulador total = IntStream.range(0, blocos)
+                .parallel()
+                .mapToObj(b -> varrer(atual, b * TAMANHO_BLOCO, Math.min(atual.tamanho, (b + 1) * TAMANHO_BLOCO),
+                        primeiroDia, baldePorDia, baldes, receitaId))
+                .reduce(new Acumulador(baldes), Acumulador::somar);
+
+        List<PontoSerieDTO> serie = new ArrayList<>(baldes);
+        for (int b = 0; b < baldes; b++) {
+            serie.add(new PontoSerieDTO(inicios.get(b), total.producoes[b], total.lotes[b], total.custos[b],
+                    total.lucros[b]));
+        }
+        return serie;
+    }
+
+    private static Acumulador varrer(Colunas colunas, int inicio, int fim, int primeiroDia, int[] baldePorDia,
+            int baldes, Long receitaId) {
+        Acumulador acumulador = new Acumulador(baldes);
+        int[] dias = colunas.carga.dias;
+        long[] receitas = colunas.carga.receitaIds;
+        int[] lotes = colunas.carga.lotes;
+        double[] custos = colunas.carga.custos;
+        double[] lucros = colunas.carga.lucros;
+        BitSet removidas = colunas.removidas;
+        boolean haRemovidas = !removidas.isEmpty();
+        boolean filtrar = receitaId != null;
+        long receita = filtrar ? receitaId : 0L;
+        int quantidadeDias = baldePorDia.length;
+
+        for (int i = inicio; i < fim; i++) {
+            // Linhas estornadas ficam marcadas até a próxima carga
+            if (haRemovidas && removidas.get(i)) {
+                continue;
+            }
+            int d = dias[i] - primeiroDia;
+            if (d < 0 || d >= quantidadeDias || (filtrar && receitas[i] != receita)) {
+                continue;
+            }
+            int b = baldePorDia[d];
+            acumulador.producoes[b]++;
+            acumulador.lotes[b] += lotes[i];
+            acumulador.custos[b] += custos[i];
+            acumulador.lucros[b] += lucros[i];
+        }
+        return acumulador;
+    }
+
+    private static LocalDate inicioDoBalde(String intervalo, LocalDate dia) {
+        switch (intervalo == null ? "day" : intervalo.toLowerCase()) {
+            case "day":
+                return dia;
+            case "week":
+                return dia.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case "month":
+                return dia.withDayOfMonth(1);
+            default:
+                throw new IllegalArgumentException("Intervalo inválido: " + intervalo + ". Use day, week ou month.");
+        }
+    }
+
+    // Arrays crescentes usados na carga e nas inclusões
+    private static final class Carga {
+        private long[] ids;
+        private int[] dias;
+        private long[] receitaIds;
+        private int[] lotes;
+        private double[] custos;
+        private double[] lucros;
+        private int tamanho;
+
+        private Carga(int capacidade) {
+            ids = new long[capacidade];
+            dias = new int[capacidade];
+            receitaIds = new long[capacidade];
+            lotes = new int[capacidade];
+            custos = new double[capacidade];
+            lucros = new double[capacidade];
+        }
+
+        private void adicionar(long id, int dia, long receitaId, int lote, double custo, double lucro) {
+            if (tamanho == ids.length) {
+                garantirCapacidade(Math.max(1024, tamanho * 2));
+            }
+            ids[tamanho] = id;
+            dias[tamanho] = dia;
+            receitaIds[tamanho] = receitaId;
+            lotes[tamanho] = lote;
+            custos[tamanho] = custo;
+            lucros[tamanho] = lucro;
+            tamanho++;
+        }
+
+        private void adicionarTodos(Carga outra) {
+            adicionarTodos(outra, outra.tamanho);
+        }
+
+        private void adicionarTodos(Carga outra, int quantidade) {
+            garantirCapacidade(tamanho + quantidade);
+            System.arraycopy(outra.ids, 0, ids, tamanho, quantidade);
+            System.arraycopy(outra.dias, 0, dias, tamanho, quantidade);
+            System.arraycopy(outra.receitaIds, 0, receitaIds, tamanho, quantidade);
+            System.arraycopy(outra.lotes, 0, lotes, tamanho, quantidade);
+            System.arraycopy(outra.custos, 0, custos, tamanho, quantidade);
+            System.arraycopy(outra.lucros, 0, lucros, tamanho, quantidade);
+            tamanho += quantidade;
+        }
+
+        private void garantirCapacidade(int capacidade) {
+            if (capacidade <= ids.length) {
+                return;
+            }
+            ids = Arrays.copyOf(ids, capacidade);
+            dias = Arrays.copyOf(dias, capacidade);
+            receitaIds = Arrays.copyOf(receitaIds, capacidade);
+            lotes = Arrays.copyOf(lotes, capacidade);
+            custos = Arrays.copyOf(custos, capacidade);
+            lucros = Arrays.copyOf(lucros, capacidade);
+        }
+    }
+
+    // Visão publicada para leitura: as linhas [0, tamanho) da carga estão completas e não mudam mais.
+    // removidas (posições estornadas) também não é alterada depois de publicada: cada estorno cria uma cópia
+    private static final class Colunas {
+        private final Carga carga;
+        private final int tamanho;
+        private final BitSet removidas;
+
+        private Colunas(Carga carga, BitSet removidas) {
+            this.carga = carga;
+            this.tamanho = carga.tamanho;
+            this.removidas = removidas;
+        }
+    }
+
+    private static final class Acumulador {
+        private final long[] producoes;
+        private final long[] lotes;
+        private final double[] custos;
+        private final double[] lucros;
+
+        private Acumulador(int baldes) {
+            producoes = new long[baldes];
+            lotes = new long[baldes];
+            custos = new double[baldes];
+            lucros = new double[baldes];
+        }
+
+        private Acumulador somar(Acumulador outro) {
+            Acumulador soma = new Acumulador(producoes.length);
+            for (int b = 0; b < producoes.length; b++) {
+                soma.producoes[b] = producoes[b] + outro.producoes[b];
+                soma.lotes[b] = lotes[b] + outro.lotes[b];
+                soma.custos[b] = custos[b] + outro.custos[b];
+                soma.lucros[b] = lucros[b] + outro.lucros[b];
+            }
+            return soma;
+        }
+    }
+}
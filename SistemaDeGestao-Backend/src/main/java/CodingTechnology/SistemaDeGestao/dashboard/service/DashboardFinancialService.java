@@ -1,38 +1,129 @@
 package CodingTechnology.SistemaDeGestao.dashboard.service;
 
+import CodingTechnology.SistemaDeGestao.dashboard.DTO.TotaisFinanceirosDTO;
+import CodingTechnology.SistemaDeGestao.producao.event.ProducaoEstornadaEvent;
+import CodingTechnology.SistemaDeGestao.producao.event.ProducaoRegistradaEvent;
 import CodingTechnology.SistemaDeGestao.producao.repository.ProducaoRepository;
-import lombok.RequiredArgsConstructor;
+import CodingTechnology.SistemaDeGestao.producao.service.ArquivoProducaoService;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
+@Timed("servico.dashboard")
 @Service
-@RequiredArgsConstructor
 public class DashboardFinancialService {
 
+    private static final Logger log = LoggerFactory.getLogger(DashboardFinancialService.class);
+
     private final ProducaoRepository producaoRepository;
+    private final ArquivoProducaoService arquivoProducaoService;
+
+    // Após este tempo o resumo é recarregado em segundo plano; após o TTL, na própria requisição
+    private final long ttlNanos;
+    private final long renovacaoNanos;
+
+    private final AtomicReference<Totais> cache = new AtomicReference<>();
+    private final AtomicBoolean recarregando = new AtomicBoolean(false);
+
+    // Incrementado a cada evento, para detectar eventos aplicados durante uma recarga
+    private final AtomicLong versao = new AtomicLong();
+
+    public DashboardFinancialService(ProducaoRepository producaoRepository,
+            ArquivoProducaoService arquivoProducaoService,
+            @Value("${application.dashboard.financeiro.ttl-segundos:30}") long ttlSegundos) {
+        this.producaoRepository = producaoRepository;
+        this.arquivoProducaoService = arquivoProducaoService;
+        this.ttlNanos = ttlSegundos * 1_000_000_000L;
+        this.renovacaoNanos = ttlNanos * 3 / 4;
+    }
 
     public Map<String, Object> getFinancialSummary() {
+        Totais totais = obterTotais();
+
         Map<String, Object> summary = new HashMap<>();
+        summary.put("totalProfit", totais.lucro);
+        summary.put("totalCost", totais.custo);
+        summary.put("productionCount", totais.quantidade);
+        summary.put("avgProfitPerProduction", totais.quantidade > 0 ? totais.lucro / totais.quantidade : 0.0);
+        return summary;
+    }
 
-        Double totalProfit = producaoRepository.findAll().stream()
-                .filter(p -> p.getLucroEstimado() != null)
-                .mapToDouble(p -> p.getLucroEstimado())
-                .sum();
+    // Soma a produção registrada aos totais em cache, sem consultar o banco
+    @TransactionalEventListener
+    public void aoRegistrarProducao(ProducaoRegistradaEvent evento) {
+        versao.incrementAndGet();
+        cache.getAndUpdate(totais -> totais == null ? null
+                : totais.somar(valor(evento.lucroEstimado()), valor(evento.custoTotal()), 1));
+    }
 
-        Double totalCost = producaoRepository.findAll().stream()
-                .filter(p -> p.getCustoTotal() != null)
-                .mapToDouble(p -> p.getCustoTotal())
-                .sum();
+    // Retira dos totais em cache a produção estornada
+    @TransactionalEventListener
+    public void aoEstornarProducao(ProducaoEstornadaEvent evento) {
+        versao.incrementAndGet();
+        cache.getAndUpdate(totais -> totais == null ? null
+                : totais.somar(-valor(evento.lucroEstimado()), -valor(evento.custoTotal()), -1));
+    }
 
-        long productionCount = producaoRepository.count();
+    private Totais obterTotais() {
+        Totais totais = cache.get();
+        long idade = totais == null ? Long.MAX_VALUE : System.nanoTime() - totais.carregadoEm;
 
-        summary.put("totalProfit", totalProfit);
-        summary.put("totalCost", totalCost);
-        summary.put("productionCount", productionCount);
-        summary.put("avgProfitPerProduction", productionCount > 0 ? totalProfit / productionCount : 0.0);
+        if (idade >= ttlNanos) {
+            return recarregar();
+        }
+        if (idade >= renovacaoNanos && recarregando.compareAndSet(false, true)) {
+            Thread.ofVirtual().name("dashboard-financeiro-refresh").start(() -> {
+                try {
+                    recarregar();
+                } catch (Exception e) {
+                    log.warn("Falha ao renovar o resumo financeiro: {}", e.getMessage());
+                } finally {
+                    recarregando.set(false);
+                }
+            });
+        }
+        return totais;
+    }
 
-        return summary;
+    private Totais recarregar() {
+        long versaoInicial = versao.get();
+        // Totais de sempre: tabela viva mais as produções já movidas para o arquivo
+        ArquivoProducaoService.ComArquivo<TotaisFinanceirosDTO> resultado =
+                arquivoProducaoService.consultarComArquivo(producaoRepository::somarTotaisFinanceiros);
+        TotaisFinanceirosDTO consulta = resultado.valor();
+        ArquivoProducaoService.TotaisArquivados arquivados = resultado.arquivados();
+        Totais totais = new Totais(valor(consulta.getTotalLucro()) + arquivados.lucroTotal(),
+                valor(consulta.getTotalCusto()) + arquivados.custoTotal(),
+                (consulta.getQuantidadeProducoes() != null ? consulta.getQuantidadeProducoes() : 0L)
+                        + arquivados.producoesDescontadas(),
+                System.nanoTime());
+
+        // Se chegou algum evento durante a consulta, não se sabe se ele já está na soma:
+        // o valor é usado, mas fica marcado para renovação na próxima leitura
+        if (versao.get() != versaoInicial) {
+            totais = new Totais(totais.lucro, totais.custo, totais.quantidade, System.nanoTime() - renovacaoNanos);
+        }
+        cache.set(totais);
+        return totais;
+    }
+
+    private static double valor(Double numero) {
+        return numero != null ? numero : 0.0;
+    }
+
+    private record Totais(double lucro, double custo, long quantidade, long carregadoEm) {
+
+        private Totais somar(double lucroDelta, double custoDelta, long quantidadeDelta) {
+            return new Totais(lucro + lucroDelta, custo + custoDelta, quantidade + quantidadeDelta, carregadoEm);
+        }
     }
 }
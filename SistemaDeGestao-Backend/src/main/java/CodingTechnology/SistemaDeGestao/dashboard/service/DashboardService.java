@@ -1,41 +1,97 @@
 package CodingTechnology.SistemaDeGestao.dashboard.service;
 
-import CodingTechnology.SistemaDeGestao.Produtos.model.entities.Product;
-import CodingTechnology.SistemaDeGestao.Produtos.repository.ProductRepository;
-import CodingTechnology.SistemaDeGestao.producao.repository.ProducaoRepository;
-import CodingTechnology.SistemaDeGestao.receita.repository.ReceitaRepository;
-import CodingTechnology.SistemaDeGestao.user.repository.UserRepository;
 import CodingTechnology.SistemaDeGestao.dashboard.DTO.DashboardStatsDTO;
+import CodingTechnology.SistemaDeGestao.producao.service.ArquivoProducaoService;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import lombok.RequiredArgsConstructor;
-import java.util.List;
 
+import java.util.concurrent.atomic.AtomicReference;
+
+@Timed("servico.dashboard")
 @Service
-@RequiredArgsConstructor
 public class DashboardService {
-    private final ProductRepository productRepository;
-    private final ReceitaRepository receitaRepository;
-    private final ProducaoRepository producaoRepository;
-    private final UserRepository userRepository;
 
+    private static final Logger log = LoggerFactory.getLogger(DashboardService.class);
+
+    // Todas as métricas em um único comando, uma subconsulta por tabela
+    private static final String SQL_ESTATISTICAS = "SELECT "
+            + "(SELECT COUNT(*) FROM products), "
+            + "(SELECT COALESCE(SUM(COALESCE(quantidade_atual, 0) * COALESCE(preco_compra, 0)), 0) FROM products), "
+            + "(SELECT COUNT(*) FROM receitas), "
+            + "(SELECT COUNT(*) FROM producoes), "
+            + "(SELECT COUNT(*) FROM users)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ArquivoProducaoService arquivoProducaoService;
+    private final long maximoAtrasoNanos;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    public DashboardService(JdbcTemplate jdbcTemplate, ArquivoProducaoService arquivoProducaoService,
+            @Value("${application.dashboard.stats.max-staleness-ms:30000}") long maximoAtrasoMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.arquivoProducaoService = arquivoProducaoService;
+        this.maximoAtrasoNanos = maximoAtrasoMillis * 1_000_000L;
+    }
+
+    // Devolve o último snapshot; só consulta o banco se o renovador não o atualizou dentro do atraso máximo
     public DashboardStatsDTO getStats() {
-        List<Product> products = productRepository.findAll();
-        long totalProducts = products.size();
-        double totalStockValue = products.stream()
-                .mapToDouble(p -> (p.getQuantidadeAtual() != null ? p.getQuantidadeAtual() : 0) *
-                        (p.getPrecoCompra() != null ? p.getPrecoCompra() : 0))
-                .sum();
-
-        long totalRecipes = receitaRepository.count();
-        long totalProductions = producaoRepository.count();
-        long totalUsers = userRepository.count();
-
-        return DashboardStatsDTO.builder()
-                .totalProducts(totalProducts)
-                .totalStockValue(totalStockValue)
-                .totalRecipes(totalRecipes)
-                .totalProductions(totalProductions)
-                .totalUsers(totalUsers)
-                .build();
+        Snapshot atual = snapshot.get();
+        if (atual == null || System.nanoTime() - atual.carregadoEm > maximoAtrasoNanos) {
+            atual = recalcular();
+        }
+        return atual.paraDTO();
+    }
+
+    // Consulta as métricas e troca o snapshot atomicamente
+    public DashboardStatsDTO recalcularStats() {
+        return recalcular().paraDTO();
+    }
+
+    // Renova o snapshot em segundo plano, antes que ultrapasse o atraso máximo
+    @Scheduled(fixedDelayString = "${application.dashboard.stats.intervalo-renovacao-ms:5000}")
+    public void renovar() {
+        try {
+            recalcular();
+        } catch (Exception e) {
+            log.warn("Falha ao renovar as estatísticas do dashboard: {}", e.getMessage());
+        }
+    }
+
+    private Snapshot recalcular() {
+        // totalProductions conta também as produções já movidas para o arquivo
+        ArquivoProducaoService.ComArquivo<Snapshot> resultado = arquivoProducaoService.consultarComArquivo(
+                () -> jdbcTemplate.queryForObject(SQL_ESTATISTICAS, (rs, rowNum) -> new Snapshot(
+                        rs.getLong(1),
+                        rs.getDouble(2),
+                        rs.getLong(3),
+                        rs.getLong(4),
+                        rs.getLong(5),
+                        System.nanoTime())));
+        Snapshot consulta = resultado.valor();
+        Snapshot novo = new Snapshot(consulta.totalProducts(), consulta.totalStockValue(), consulta.totalRecipes(),
+                consulta.totalProductions() + resultado.arquivados().producoes(), consulta.totalUsers(),
+                consulta.carregadoEm());
+        snapshot.set(novo);
+        return novo;
+    }
+
+    private record Snapshot(long totalProducts, double totalStockValue, long totalRecipes, long totalProductions,
+            long totalUsers, long carregadoEm) {
+
+        private DashboardStatsDTO paraDTO() {
+            return DashboardStatsDTO.builder()
+                    .totalProducts(totalProducts)
+                    .totalStockValue(totalStockValue)
+                    .totalRecipes(totalRecipes)
+                    .totalProductions(totalProductions)
+                    .totalUsers(totalUsers)
+                    .build();
+        }
     }
 }
@@ -0,0 +1,271 @@
+package CodingTechnology.SistemaDeGestao.dashboard.service;
+
+import CodingTechnology.SistemaDeGestao.Produtos.event.ProdutoAlteradoEvent;
+import CodingTechnology.SistemaDeGestao.dashboard.DTO.DashboardStatsDTO;
+import CodingTechnology.SistemaDeGestao.dashboard.DTO.MetricasDashboardDTO;
+import CodingTechnology.SistemaDeGestao.producao.event.ProducaoEstornadaEvent;
+import CodingTechnology.SistemaDeGestao.producao.event.ProducaoRegistradaEvent;
+import CodingTechnology.SistemaDeGestao.receita.event.ReceitaAlteradaEvent;
+import CodingTechnology.SistemaDeGestao.user.event.UsuarioAlteradoEvent;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Sem monitores: o snapshot é montado fora de qualquer trava e trocado atomicamente, e cada cliente
+// recebe seus eventos em uma virtual thread própria. Um cliente lento só atrasa a si mesmo.
+@Timed("servico.dashboard")
+@Service
+public class DashboardStreamService {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardStreamService.class);
+
+    private final DashboardService dashboardService;
+    private final DashboardFinancialService dashboardFinancialService;
+    private final long timeoutMillis;
+    private final long intervaloHeartbeatMillis;
+
+    private final List<Cliente> clientes = new CopyOnWriteArrayList<>();
+    private final ExecutorService envios = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Marcado pelos eventos de escrita; consumido no máximo uma vez por intervalo
+    private final AtomicBoolean alterado = new AtomicBoolean(false);
+
+    // Último snapshot publicado, compartilhado por todos os clientes conectados
+    private final AtomicReference<MetricasDashboardDTO> snapshot = new AtomicReference<>();
+    private final AtomicLong versoes = new AtomicLong();
+    private volatile long ultimoEnvio = System.currentTimeMillis();
+
+    public DashboardStreamService(DashboardService dashboardService,
+            DashboardFinancialService dashboardFinancialService,
+            @Value("${application.dashboard.stream.timeout-ms:1800000}") long timeoutMillis,
+            @Value("${application.dashboard.stream.heartbeat-ms:15000}") long intervaloHeartbeatMillis) {
+        this.dashboardService = dashboardService;
+        this.dashboardFinancialService = dashboardFinancialService;
+        this.timeoutMillis = timeoutMillis;
+        this.intervaloHeartbeatMillis = intervaloHeartbeatMillis;
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        envios.shutdownNow();
+    }
+
+    // Registra um novo cliente e envia o snapshot atual como primeiro evento.
+    // Alterações ainda não publicadas chegam como delta ou snapshot no próximo intervalo.
+    public SseEmitter conectar() {
+        Cliente cliente = new Cliente(new SseEmitter(timeoutMillis));
+        cliente.emitter.onCompletion(() -> clientes.remove(cliente));
+        cliente.emitter.onTimeout(() -> clientes.remove(cliente));
+        cliente.emitter.onError(e -> clientes.remove(cliente));
+
+        MetricasDashboardDTO atual = snapshot.get();
+        if (atual == null) {
+            atual = montarSnapshot();
+            publicar(atual);
+        }
+
+        // Entra na lista antes de receber o snapshot: um delta publicado no meio do caminho encontra
+        // o cliente ocupado e é pulado; a diferença de versão faz o próximo evento enviar o snapshot
+        clientes.add(cliente);
+        cliente.envio.lock();
+        try {
+            MetricasDashboardDTO maisRecente = snapshot.get();
+            enviarSnapshot(cliente, maisRecente != null && maisRecente.getVersao() > atual.getVersao()
+                    ? maisRecente : atual);
+        } catch (IOException | IllegalStateException e) {
+            desconectar(cliente, e);
+        } finally {
+            cliente.envio.unlock();
+        }
+        return cliente.emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarProduto(ProdutoAlteradoEvent evento) {
+        alterado.set(true);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarReceita(ReceitaAlteradaEvent evento) {
+        alterado.set(true);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarUsuario(UsuarioAlteradoEvent evento) {
+        alterado.set(true);
+    }
+
+    @TransactionalEventListener
+    public void aoRegistrarProducao(ProducaoRegistradaEvent evento) {
+        alterado.set(true);
+    }
+
+    @TransactionalEventListener
+    public void aoEstornarProducao(ProducaoEstornadaEvent evento) {
+        alterado.set(true);
+    }
+
+    // Junta as alterações do intervalo em um único recálculo e envia somente as métricas que mudaram
+    @Scheduled(fixedDelayString = "${application.dashboard.stream.intervalo-ms:1000}")
+    public void publicarAlteracoes() {
+        if (clientes.isEmpty()) {
+            // Sem clientes não há o que recalcular; o próximo a conectar recebe um snapshot novo
+            if (alterado.getAndSet(false)) {
+                snapshot.set(null);
+            }
+            return;
+        }
+
+        MetricasDashboardDTO anterior = snapshot.get();
+        if (!alterado.getAndSet(false)) {
+            if (System.currentTimeMillis() - ultimoEnvio >= intervaloHeartbeatMillis) {
+                distribuir(cliente -> {
+                    // Cliente que perdeu um delta por estar ocupado é ressincronizado no heartbeat
+                    if (anterior != null && cliente.versao < anterior.getVersao()) {
+                        enviarSnapshot(cliente, anterior);
+                    } else {
+                        cliente.emitter.send(SseEmitter.event().comment("heartbeat"));
+                    }
+                });
+            }
+            return;
+        }
+
+        MetricasDashboardDTO atual = montarSnapshot();
+        Map<String, Object> variacoes = calcularVariacoes(anterior, atual);
+        if (anterior != null && variacoes.isEmpty()) {
+            return;
+        }
+        publicar(atual);
+
+        Map<String, Object> delta = new LinkedHashMap<>();
+        delta.put("versao", atual.getVersao());
+        delta.put("variacoes", variacoes);
+        distribuir(cliente -> {
+            if (anterior != null && cliente.versao == anterior.getVersao()) {
+                cliente.emitter.send(SseEmitter.event().name("delta").id(String.valueOf(atual.getVersao()))
+                        .data(delta));
+                cliente.versao = atual.getVersao();
+            } else if (cliente.versao < atual.getVersao()) {
+                enviarSnapshot(cliente, atual);
+            }
+        });
+    }
+
+    // Consulta as métricas sem trava; a versão é atribuída só na publicação
+    private MetricasDashboardDTO montarSnapshot() {
+        DashboardStatsDTO stats = dashboardService.recalcularStats();
+        Map<String, Object> financeiro = dashboardFinancialService.getFinancialSummary();
+
+        return MetricasDashboardDTO.builder()
+                .totalProducts(stats.getTotalProducts())
+                .totalStockValue(stats.getTotalStockValue())
+                .totalRecipes(stats.getTotalRecipes())
+                .totalProductions(stats.getTotalProductions())
+                .totalUsers(stats.getTotalUsers())
+                .totalCost((Double) financeiro.get("totalCost"))
+                .totalProfit((Double) financeiro.get("totalProfit"))
+                .build();
+    }
+
+    // Troca o snapshot; se outro mais novo já foi publicado (conexão concorrente), ele prevalece
+    private void publicar(MetricasDashboardDTO novo) {
+        novo.setVersao(versoes.incrementAndGet());
+        snapshot.accumulateAndGet(novo, (atual, candidato) ->
+                atual == null || candidato.getVersao() > atual.getVersao() ? candidato : atual);
+    }
+
+    private void enviarSnapshot(Cliente cliente, MetricasDashboardDTO dados) throws IOException {
+        cliente.emitter.send(SseEmitter.event().name("snapshot").id(String.valueOf(dados.getVersao())).data(dados));
+        cliente.versao = dados.getVersao();
+    }
+    // Diferença entre dois snapshots, apenas dos campos alterados
+    private Map<String, Object> calcularVariacoes(MetricasDashboardDTO anterior, MetricasDashboardDTO atual) {
+        Map<String, Object> variacoes = new LinkedHashMap<>();
+        if (anterior == null) {
+            return variacoes;
+        }
+        if (atual.getTotalProducts() != anterior.getTotalProducts()) {
+            variacoes.put("totalProducts", atual.getTotalProducts() - anterior.getTotalProducts());
+        }
+        if (atual.getTotalStockValue() != anterior.getTotalStockValue()) {
+            variacoes.put("totalStockValue", atual.getTotalStockValue() - anterior.getTotalStockValue());
+        }
+        if (atual.getTotalRecipes() != anterior.getTotalRecipes()) {
+            variacoes.put("totalRecipes", atual.getTotalRecipes() - anterior.getTotalRecipes());
+        }
+        if (atual.getTotalProductions() != anterior.getTotalProductions()) {
+            variacoes.put("totalProductions", atual.getTotalProductions() - anterior.getTotalProductions());
+        }
+        if (atual.getTotalUsers() != anterior.getTotalUsers()) {
+            variacoes.put("totalUsers", atual.getTotalUsers() - anterior.getTotalUsers());
+        }
+        if (atual.getTotalCost() != anterior.getTotalCost()) {
+            variacoes.put("totalCost", atual.getTotalCost() - anterior.getTotalCost());
+        }
+        if (atual.getTotalProfit() != anterior.getTotalProfit()) {
+            variacoes.put("totalProfit", atual.getTotalProfit() - anterior.getTotalProfit());
+        }
+        return variacoes;
+    }
+
+    // Cada cliente recebe em sua própria virtual thread. Se o envio anterior ainda não terminou, o cliente
+    // é pulado (continua na versão antiga) em vez de acumular tarefas; o próximo evento o ressincroniza.
+    private void distribuir(Envio envio) {
+        ultimoEnvio = System.currentTimeMillis();
+        for (Cliente cliente : clientes) {
+            envios.execute(() -> {
+                if (!cliente.envio.tryLock()) {
+                    return;
+                }
+                try {
+                    envio.enviar(cliente);
+                } catch (IOException | IllegalStateException e) {
+                    desconectar(cliente, e);
+                } finally {
+                    cliente.envio.unlock();
+                }
+            });
+        }
+    }
+
+    private void desconectar(Cliente cliente, Exception e) {
+        log.debug("Cliente do stream do dashboard desconectado: {}", e.getMessage());
+        clientes.remove(cliente);
+        cliente.emitter.completeWithError(e);
+    }
+
+    @FunctionalInterface
+    private interface Envio {
+        void enviar(Cliente cliente) throws IOException;
+    }
+
+    // Emitter com a última versão entregue; a trava serializa os envios ao mesmo cliente
+    private static final class Cliente {
+        private final SseEmitter emitter;
+        private final ReentrantLock envio = new ReentrantLock();
+        private long versao;
+
+        private Cliente(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package CodingTechnology.SistemaDeGestao.dashboard.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Supplier;
+
+// Mantém apenas os N maiores valores vistos, em um heap mínimo de tamanho N
+final class RankingLimitado<T> {
+
+    private final int limite;
+    private final PriorityQueue<Entrada<T>> heap;
+
+    RankingLimitado(int limite) {
+        this.limite = limite;
+        this.heap = new PriorityQueue<>(limite + 1, Comparator.comparingDouble(Entrada::valor));
+    }
+
+    // O item só entra se superar o menor valor do heap; o fornecedor evita criar itens descartados
+    void oferecer(double valor, Supplier<T> item) {
+        if (heap.size() < limite) {
+            heap.add(new Entrada<>(valor, item.get()));
+        } else if (limite > 0 && valor > heap.peek().valor()) {
+            heap.poll();
+            heap.add(new Entrada<>(valor, item.get()));
+        }
+    }
+
+    // Itens do maior para o menor valor (ordena só os N itens retidos)
+    List<T> resultado() {
+        List<Entrada<T>> entradas = new ArrayList<>(heap);
+        entradas.sort(Comparator.comparingDouble(Entrada<T>::valor).reversed());
+        List<T> itens = new ArrayList<>(entradas.size());
+        entradas.forEach(entrada -> itens.add(entrada.item()));
+        return itens;
+    }
+
+    private record Entrada<T>(double valor, T item) {
+    }
+}
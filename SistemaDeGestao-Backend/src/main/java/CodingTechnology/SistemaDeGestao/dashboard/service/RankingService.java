@@ -0,0 +1,108 @@
+package CodingTechnology.SistemaDeGestao.dashboard.service;
+
+import CodingTechnology.SistemaDeGestao.Produtos.model.enums.UnidadeMedida;
+import CodingTechnology.SistemaDeGestao.dashboard.DTO.ConsumoIngredienteDTO;
+import CodingTechnology.SistemaDeGestao.dashboard.DTO.ItemRankingDTO;
+import CodingTechnology.SistemaDeGestao.dashboard.DTO.RankingReceitasDTO;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import lombok.RequiredArgsConstructor;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+
+// Rankings do dashboard calculados em uma única passagem sobre totais agrupados no banco,
+// retendo apenas os N primeiros de cada métrica
+@Timed("servico.dashboard")
+@Service
+@RequiredArgsConstructor
+public class RankingService {
+
+    private static final int LIMITE_PADRAO = 10;
+    private static final int LIMITE_MAXIMO = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Receitas com maior lucro, maior custo e maior quantidade produzida no período
+    public RankingReceitasDTO rankingReceitas(LocalDate dataInicio, LocalDate dataFim, Integer limite) {
+        validarPeriodo(dataInicio, dataFim);
+        int n = limitar(limite);
+
+        RankingLimitado<ItemRankingDTO> lucro = new RankingLimitado<>(n);
+        RankingLimitado<ItemRankingDTO> custo = new RankingLimitado<>(n);
+        RankingLimitado<ItemRankingDTO> volume = new RankingLimitado<>(n);
+
+        // Sem ORDER BY: as linhas chegam em qualquer ordem e só os heaps guardam estado
+        jdbcTemplate.query("SELECT s.receita_id, r.nome, SUM(s.lucro_estimado), SUM(s.custo_total), "
+                + "SUM(s.quantidade_produzida) "
+                + "FROM producao_resumo_diario s JOIN receitas r ON r.id = s.receita_id "
+                + "WHERE s.dia >= ? AND s.dia <= ? "
+                + "GROUP BY s.receita_id, r.nome", rs -> {
+                    long receitaId = rs.getLong(1);
+                    String nome = rs.getString(2);
+                    double totalLucro = rs.getDouble(3);
+                    double totalCusto = rs.getDouble(4);
+                    double totalProduzido = rs.getDouble(5);
+
+                    lucro.oferecer(totalLucro, () -> new ItemRankingDTO(receitaId, nome, totalLucro));
+                    custo.oferecer(totalCusto, () -> new ItemRankingDTO(receitaId, nome, totalCusto));
+                    volume.oferecer(totalProduzido, () -> new ItemRankingDTO(receitaId, nome, totalProduzido));
+                }, Date.valueOf(dataInicio), Date.valueOf(dataFim));
+
+        return new RankingReceitasDTO(lucro.resultado(), custo.resultado(), volume.resultado());
+    }
+
+    // Ingredientes com maior custo consumido no período, a partir do consumo gravado em cada produção
+    // (producao_consumos, na unidade do estoque): editar uma receita não reescreve rankings passados
+    public List<ConsumoIngredienteDTO> rankingIngredientes(LocalDate dataInicio, LocalDate dataFim,
+            Integer limite) {
+        validarPeriodo(dataInicio, dataFim);
+        RankingLimitado<ConsumoIngredienteDTO> ranking = new RankingLimitado<>(limitar(limite));
+
+        // Uma linha por produto, sem ORDER BY: só o heap guarda estado
+        jdbcTemplate.query("SELECT c.produto_id, p.nome, p.unidade_medida, p.preco_compra, SUM(c.quantidade) "
+                + "FROM producao_consumos c "
+                + "JOIN producoes pr ON pr.id = c.producao_id "
+                + "JOIN products p ON p.id = c.produto_id "
+                + "WHERE pr.data_producao >= ? AND pr.data_producao < ? AND pr.estoque_descontado = TRUE "
+                + "GROUP BY c.produto_id, p.nome, p.unidade_medida, p.preco_compra", rs -> {
+                    long produtoId = rs.getLong(1);
+                    String nome = rs.getString(2);
+                    UnidadeMedida unidadeMedida = unidade(rs.getString(3));
+                    double consumido = rs.getDouble(5);
+                    double custo = consumido * rs.getDouble(4);
+                    ranking.oferecer(custo, () -> new ConsumoIngredienteDTO(produtoId, nome, consumido, unidadeMedida,
+                            custo));
+                }, Timestamp.valueOf(dataInicio.atStartOfDay()),
+                Timestamp.valueOf(dataFim.plusDays(1).atStartOfDay()));
+
+        return ranking.resultado();
+    }
+
+    private void validarPeriodo(LocalDate dataInicio, LocalDate dataFim) {
+        if (dataInicio == null || dataFim == null) {
+            throw new IllegalArgumentException("Informe a data inicial e a data final do período.");
+        }
+        if (dataFim.isBefore(dataInicio)) {
+            throw new IllegalArgumentException("A data final não pode ser anterior à data inicial.");
+        }
+    }
+
+    private static int limitar(Integer limite) {
+        return limite == null ? LIMITE_PADRAO : Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+    }
+
+    private static UnidadeMedida unidade(String valor) {
+        if (valor == null) {
+            return null;
+        }
+        try {
+            return UnidadeMedida.valueOf(valor);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
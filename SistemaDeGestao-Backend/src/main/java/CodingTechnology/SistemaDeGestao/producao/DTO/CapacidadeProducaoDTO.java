@@ -0,0 +1,14 @@
+package CodingTechnology.SistemaDeGestao.producao.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class CapacidadeProducaoDTO {
+    private Long receitaId;
+    private String receitaNome;
+    private Long lotesMaximos;
+    private Long produtoLimitanteId; // Ingrediente que se esgota primeiro
+    private String produtoLimitanteNome;
+}
@@ -0,0 +1,12 @@
+package CodingTechnology.SistemaDeGestao.producao.DTO;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+public class ItemPlanoProducaoDTO {
+    private Long receitaId;
+    private Integer quantidadeLotes;
+    private LocalDate data;
+}
@@ -0,0 +1,29 @@
+package CodingTechnology.SistemaDeGestao.producao.DTO;
+
+import CodingTechnology.SistemaDeGestao.Produtos.model.enums.UnidadeMedida;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class NecessidadeMaterialDTO {
+    private Long produtoId;
+    private String produtoNome;
+    private UnidadeMedida unidadeMedida; // Unidade do estoque do produto
+    private Double estoqueAtual;
+    private Double necessidadeTotal;
+    private Double estoqueFinalProjetado;
+    private LocalDate primeiraFalta; // Nulo quando o estoque cobre todo o plano
+    private List<NecessidadeDiariaDTO> dias;
+
+    @Data
+    @AllArgsConstructor
+    public static class NecessidadeDiariaDTO {
+        private LocalDate data;
+        private Double necessidade;
+        private Double estoqueProjetado;
+    }
+}
@@ -0,0 +1,16 @@
+package CodingTechnology.SistemaDeGestao.producao.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class PaginaHistoricoDTO {
+    private List<ProducaoHistoricoDTO> itens;
+    // Cursor da próxima página (nulos quando não há mais resultados)
+    private LocalDateTime proximoCursorData;
+    private Long proximoCursorId;
+}
@@ -0,0 +1,10 @@
+package CodingTechnology.SistemaDeGestao.producao.DTO;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class PlanoProducaoDTO {
+    private List<ItemPlanoProducaoDTO> itens;
+}
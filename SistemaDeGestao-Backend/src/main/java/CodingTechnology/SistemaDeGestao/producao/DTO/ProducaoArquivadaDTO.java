@@ -0,0 +1,32 @@
+package CodingTechnology.SistemaDeGestao.producao.DTO;
+
+import CodingTechnology.SistemaDeGestao.Produtos.model.enums.UnidadeMedida;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ProducaoArquivadaDTO {
+    private Long id;
+    private LocalDateTime dataProducao;
+    private Long receitaId;
+    private String receitaNome;
+    private Integer quantidadeProduzida;
+    private Integer quantidadeLotes;
+    private Double custoTotal;
+    private Double lucroEstimado;
+    private Boolean estoqueDescontado;
+    private String observacoes;
+    private List<Resultado> resultados;
+
+    @Data
+    @AllArgsConstructor
+    public static class Resultado {
+        private Long produtoId;
+        private Double quantidade;
+        private UnidadeMedida unidadeMedida;
+    }
+}
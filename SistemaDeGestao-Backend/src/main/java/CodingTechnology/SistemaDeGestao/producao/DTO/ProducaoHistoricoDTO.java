@@ -0,0 +1,17 @@
+package CodingTechnology.SistemaDeGestao.producao.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class ProducaoHistoricoDTO {
+    private Long id;
+    private LocalDateTime dataProducao;
+    private String receitaNome;
+    private Integer quantidadeLotes;
+    private Double custoTotal;
+    private Double lucroEstimado;
+}
@@ -0,0 +1,16 @@
+package CodingTechnology.SistemaDeGestao.producao.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ResumoProducaoPeriodoDTO {
+    private Long receitaId;
+    private String receitaNome;
+    private Long quantidadeProducoes;
+    private Long quantidadeLotes;
+    private Long quantidadeProduzida;
+    private Double custoTotal;
+    private Double lucroEstimado;
+}
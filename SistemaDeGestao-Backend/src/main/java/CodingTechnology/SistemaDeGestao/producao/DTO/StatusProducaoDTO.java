@@ -0,0 +1,19 @@
+package CodingTechnology.SistemaDeGestao.producao.DTO;
+
+import CodingTechnology.SistemaDeGestao.producao.model.enums.StatusProducaoAssincrona;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+public class StatusProducaoDTO {
+    private UUID ticket;
+    private StatusProducaoAssincrona status;
+    private Long producaoId;
+    private String mensagem;
+    private LocalDateTime dataSolicitacao;
+    private LocalDateTime dataConclusao;
+}
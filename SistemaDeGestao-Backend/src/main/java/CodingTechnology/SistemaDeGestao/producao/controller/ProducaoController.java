@@ -1,15 +1,33 @@
 package CodingTechnology.SistemaDeGestao.producao.controller;
 
+import CodingTechnology.SistemaDeGestao.producao.DTO.CapacidadeProducaoDTO;
+import CodingTechnology.SistemaDeGestao.producao.DTO.NecessidadeMaterialDTO;
+import CodingTechnology.SistemaDeGestao.producao.DTO.PaginaHistoricoDTO;
+import CodingTechnology.SistemaDeGestao.producao.DTO.PlanoProducaoDTO;
+import CodingTechnology.SistemaDeGestao.producao.DTO.ProducaoArquivadaDTO;
+import CodingTechnology.SistemaDeGestao.producao.DTO.ResumoProducaoPeriodoDTO;
+import CodingTechnology.SistemaDeGestao.producao.DTO.StatusProducaoDTO;
 import CodingTechnology.SistemaDeGestao.producao.model.entities.Producao;
+import CodingTechnology.SistemaDeGestao.producao.service.ArquivoProducaoService;
+import CodingTechnology.SistemaDeGestao.producao.service.CapacidadeProducaoService;
+import CodingTechnology.SistemaDeGestao.producao.service.PlanejamentoMateriaisService;
+import CodingTechnology.SistemaDeGestao.producao.service.ProducaoAssincronaService;
+import CodingTechnology.SistemaDeGestao.producao.service.ProducaoIdempotenciaService;
+import CodingTechnology.SistemaDeGestao.producao.service.ProducaoResumoService;
 import CodingTechnology.SistemaDeGestao.producao.service.ProducaoService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/producoes")
@@ -17,12 +35,23 @@ import java.util.Map;
 public class ProducaoController {
 
     private final ProducaoService producaoService;
+    private final ProducaoIdempotenciaService producaoIdempotenciaService;
+    private final ProducaoAssincronaService producaoAssincronaService;
+    private final CapacidadeProducaoService capacidadeProducaoService;
+    private final ProducaoResumoService producaoResumoService;
+    private final ArquivoProducaoService arquivoProducaoService;
+    private final PlanejamentoMateriaisService planejamentoMateriaisService;
 
-    // Registra uma nova produção e desconta automaticamente o estoque
+    // Registra uma nova produção e desconta automaticamente o estoque.
+    // Com o header Idempotency-Key, repetições da mesma chave devolvem a produção original;
+    // a mesma chave com outro corpo é recusada.
     @PostMapping("/registrar")
-    public ResponseEntity<?> registrarProducao(@RequestBody Producao producao) {
+    public ResponseEntity<?> registrarProducao(@RequestBody Producao producao,
+            @RequestHeader(value = "Idempotency-Key", required = false) String chaveIdempotencia) {
         try {
-            Producao producaoRegistrada = producaoService.registrarProducao(producao);
+            Producao producaoRegistrada = chaveIdempotencia != null
+                    ? producaoIdempotenciaService.registrar(chaveIdempotencia, producao)
+                    : producaoService.registrarProducao(producao);
             return ResponseEntity.status(HttpStatus.CREATED).body(producaoRegistrada);
         } catch (IllegalArgumentException e) {
             Map<String, String> error = new HashMap<>();
@@ -31,6 +60,67 @@ public class ProducaoController {
         }
     }
 
+    // Valida e enfileira a produção para processamento assíncrono, devolvendo um ticket
+    @PostMapping("/registrar-async")
+    public ResponseEntity<?> registrarProducaoAssincrona(@RequestBody Producao producao) {
+        Map<String, Object> body = new HashMap<>();
+        try {
+            UUID ticket = producaoAssincronaService.enfileirar(producao);
+            body.put("ticket", ticket);
+            body.put("status", "/api/producoes/status/" + ticket);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(body);
+        } catch (IllegalArgumentException e) {
+            body.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(body);
+        } catch (IllegalStateException e) {
+            body.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(body);
+        }
+    }
+
+    // Consulta o status de uma produção enviada para processamento assíncrono
+    @GetMapping("/status/{ticket}")
+    public ResponseEntity<StatusProducaoDTO> consultarStatus(@PathVariable UUID ticket) {
+        return producaoAssincronaService.consultarStatus(ticket)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // Calcula quantos lotes de cada receita o estoque atual permite produzir
+    @GetMapping("/capacidade")
+    public ResponseEntity<List<CapacidadeProducaoDTO>> calcularCapacidade() {
+        return ResponseEntity.ok(capacidadeProducaoService.calcularCapacidade());
+    }
+
+    // Calcula a necessidade de ingredientes de um plano de produção (receita x lotes x data),
+    // com a curva de estoque projetada e a primeira data de falta de cada produto
+    @PostMapping("/necessidades")
+    public ResponseEntity<?> calcularNecessidades(@RequestBody PlanoProducaoDTO plano) {
+        try {
+            List<NecessidadeMaterialDTO> necessidades = planejamentoMateriaisService.calcularNecessidades(plano);
+            return ResponseEntity.ok(necessidades);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    // Estorna uma produção, devolvendo os ingredientes e retirando os produtos resultantes do estoque
+    @PostMapping("/{id}/estornar")
+    public ResponseEntity<Map<String, Object>> estornarProducao(@PathVariable Long id) {
+        Map<String, Object> body = new HashMap<>();
+        try {
+            producaoService.estornarProducao(id);
+            body.put("producaoId", id);
+            body.put("message", "Produção estornada com sucesso.");
+            return ResponseEntity.ok(body);
+        } catch (IllegalArgumentException e) {
+            body.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(body);
+        }
+    }
+
     // Lista todas as produções ordenadas por data (mais recentes primeiro)
     @GetMapping("/listar")
     public ResponseEntity<List<Producao>> listarProducoes() {
@@ -38,6 +128,59 @@ public class ProducaoController {
         return ResponseEntity.ok(producoes);
     }
 
+    // Histórico paginado por cursor, com filtros opcionais de receita e período
+    @GetMapping("/historico")
+    public ResponseEntity<PaginaHistoricoDTO> buscarHistorico(
+            @RequestParam(required = false) Long receitaId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dataInicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dataFim,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime cursorData,
+            @RequestParam(required = false) Long cursorId,
+            @RequestParam(required = false) Integer tamanho) {
+        return ResponseEntity.ok(producaoService.buscarHistorico(receitaId, dataInicio, dataFim,
+                cursorData, cursorId, tamanho));
+    }
+
+    // Totais do período por receita, somados a partir dos resumos diários
+    @GetMapping("/resumos")
+    public ResponseEntity<List<ResumoProducaoPeriodoDTO>> resumirPeriodo(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim,
+            @RequestParam(required = false) Long receitaId) {
+        return ResponseEntity.ok(producaoResumoService.resumirPeriodo(dataInicio, dataFim, receitaId));
+    }
+
+    // Recalcula os resumos diários a partir das produções (apenas ADMIN)
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/resumos/reconstruir")
+    public ResponseEntity<Map<String, Object>> reconstruirResumos() {
+        return ResponseEntity.ok(producaoResumoService.reconstruir());
+    }
+
+    // Consulta as produções já movidas para o arquivo (somente leitura)
+    @GetMapping("/arquivo")
+    public ResponseEntity<List<ProducaoArquivadaDTO>> consultarArquivo(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim,
+            @RequestParam(required = false) Long receitaId,
+            @RequestParam(required = false) Integer limite) {
+        return ResponseEntity.ok(arquivoProducaoService.consultar(dataInicio, dataFim, receitaId, limite));
+    }
+
+    // Executa o arquivamento imediatamente, sem esperar o agendamento (apenas ADMIN)
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/arquivo/executar")
+    public ResponseEntity<Map<String, Object>> executarArquivamento() {
+        Map<String, Object> body = new HashMap<>();
+        try {
+            body.put("producoesArquivadas", arquivoProducaoService.arquivar());
+            return ResponseEntity.ok(body);
+        } catch (IllegalStateException e) {
+            body.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+        }
+    }
+
     // Busca uma produção por ID
     @GetMapping("/buscar/{id}")
     public ResponseEntity<Producao> buscarProducaoPorId(@PathVariable Long id) {
@@ -0,0 +1,16 @@
+package CodingTechnology.SistemaDeGestao.producao.event;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+// Publicado na transação de estorno da produção; os ouvintes recebem após o commit.
+// consumoPorProduto: quantidade devolvida ao estoque de cada ingrediente (o consumo gravado no registro)
+public record ProducaoEstornadaEvent(
+        Long producaoId,
+        Long receitaId,
+        LocalDateTime dataProducao,
+        Integer quantidadeLotes,
+        Double custoTotal,
+        Double lucroEstimado,
+        Map<Long, Double> consumoPorProduto) {
+}
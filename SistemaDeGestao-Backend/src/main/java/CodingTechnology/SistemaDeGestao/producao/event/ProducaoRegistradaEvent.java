@@ -0,0 +1,16 @@
+package CodingTechnology.SistemaDeGestao.producao.event;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+// Publicado na transação de registro da produção; os ouvintes recebem após o commit.
+// consumoPorProduto: quantidade descontada de cada ingrediente, na unidade do estoque
+public record ProducaoRegistradaEvent(
+        Long producaoId,
+        Long receitaId,
+        LocalDateTime dataProducao,
+        Integer quantidadeLotes,
+        Double custoTotal,
+        Double lucroEstimado,
+        Map<Long, Double> consumoPorProduto) {
+}
@@ -8,7 +8,10 @@ import java.time.LocalDateTime;
 import CodingTechnology.SistemaDeGestao.receita.model.entities.Receita;
 
 @Entity
-@Table(name = "producoes")
+@Table(name = "producoes", indexes = {
+        @Index(name = "idx_producoes_data_producao", columnList = "data_producao"),
+        @Index(name = "idx_producoes_receita_data", columnList = "receita_id, data_producao")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
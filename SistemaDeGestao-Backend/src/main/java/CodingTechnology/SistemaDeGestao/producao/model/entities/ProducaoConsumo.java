@@ -0,0 +1,31 @@
+package CodingTechnology.SistemaDeGestao.producao.model.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// Quantidade de cada produto descontada no registro da produção, na unidade do estoque da época.
+// O estorno devolve exatamente estes valores, mesmo que a receita ou o produto tenham mudado depois.
+@Entity
+@Table(name = "producao_consumos", indexes = {
+        @Index(name = "idx_producao_consumos_producao", columnList = "producao_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProducaoConsumo {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "producao_id", nullable = false)
+    private Long producaoId;
+
+    // Sem chave estrangeira: excluir o produto não apaga o histórico de consumo
+    @Column(name = "produto_id", nullable = false)
+    private Long produtoId;
+
+    @Column(nullable = false)
+    private Double quantidade;
+}
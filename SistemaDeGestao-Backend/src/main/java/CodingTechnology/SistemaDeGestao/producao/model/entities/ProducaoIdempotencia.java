@@ -0,0 +1,40 @@
+package CodingTechnology.SistemaDeGestao.producao.model.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "producao_idempotencia")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProducaoIdempotencia {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 100)
+    private String chave;
+
+    // SHA-256 do corpo da requisição: a mesma chave com outro corpo é recusada
+    @Column(length = 64)
+    private String assinatura;
+
+    @Column(name = "producao_id", nullable = false)
+    private Long producaoId;
+
+    @Column(name = "data_criacao", nullable = false)
+    private LocalDateTime dataCriacao;
+
+    // Define data de criação antes de salvar
+    @PrePersist
+    protected void onCreate() {
+        if (dataCriacao == null) {
+            dataCriacao = LocalDateTime.now();
+        }
+    }
+}
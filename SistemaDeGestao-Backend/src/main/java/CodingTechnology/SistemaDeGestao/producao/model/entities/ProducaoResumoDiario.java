@@ -0,0 +1,43 @@
+package CodingTechnology.SistemaDeGestao.producao.model.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+// Totais diários de produção por receita, somados a cada produção registrada
+@Entity
+@Table(name = "producao_resumo_diario", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_resumo_dia_receita", columnNames = { "dia", "receita_id" })
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProducaoResumoDiario {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate dia;
+
+    @Column(name = "receita_id", nullable = false)
+    private Long receitaId;
+
+    @Column(name = "quantidade_producoes", nullable = false)
+    private Long quantidadeProducoes;
+
+    @Column(name = "quantidade_lotes", nullable = false)
+    private Long quantidadeLotes;
+
+    @Column(name = "quantidade_produzida", nullable = false)
+    private Long quantidadeProduzida;
+
+    @Column(name = "custo_total", nullable = false)
+    private Double custoTotal;
+
+    @Column(name = "lucro_estimado", nullable = false)
+    private Double lucroEstimado;
+}
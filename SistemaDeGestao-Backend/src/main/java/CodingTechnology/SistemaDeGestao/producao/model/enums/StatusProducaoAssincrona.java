@@ -0,0 +1,8 @@
+package CodingTechnology.SistemaDeGestao.producao.model.enums;
+
+public enum StatusProducaoAssincrona {
+    PENDENTE,
+    PROCESSANDO,
+    CONCLUIDA,
+    ERRO
+}
@@ -0,0 +1,13 @@
+package CodingTechnology.SistemaDeGestao.producao.repository;
+
+import CodingTechnology.SistemaDeGestao.producao.model.entities.ProducaoConsumo;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ProducaoConsumoRepository extends JpaRepository<ProducaoConsumo, Long> {
+
+    List<ProducaoConsumo> findByProducaoId(Long producaoId);
+}
@@ -0,0 +1,13 @@
+package CodingTechnology.SistemaDeGestao.producao.repository;
+
+import CodingTechnology.SistemaDeGestao.producao.model.entities.ProducaoIdempotencia;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ProducaoIdempotenciaRepository extends JpaRepository<ProducaoIdempotencia, Long> {
+
+    Optional<ProducaoIdempotencia> findByChave(String chave);
+}
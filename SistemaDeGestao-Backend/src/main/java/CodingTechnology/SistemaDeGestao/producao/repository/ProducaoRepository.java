@@ -1,7 +1,12 @@
 package CodingTechnology.SistemaDeGestao.producao.repository;
 
+import CodingTechnology.SistemaDeGestao.dashboard.DTO.TotaisFinanceirosDTO;
+import CodingTechnology.SistemaDeGestao.producao.DTO.ProducaoHistoricoDTO;
 import CodingTechnology.SistemaDeGestao.producao.model.entities.Producao;
+import CodingTechnology.SistemaDeGestao.producao.model.entities.ProducaoResultado;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -19,4 +24,35 @@ public interface ProducaoRepository extends JpaRepository<Producao, Long> {
 
     @Query("SELECT p FROM Producao p ORDER BY p.dataProducao DESC")
     List<Producao> findTodasOrdenadasPorData();
+
+    // Totais financeiros em uma única agregação; produções estornadas não entram
+    @Query("SELECT new CodingTechnology.SistemaDeGestao.dashboard.DTO.TotaisFinanceirosDTO("
+            + "COALESCE(SUM(p.lucroEstimado), 0.0), COALESCE(SUM(p.custoTotal), 0.0), COUNT(p)) "
+            + "FROM Producao p WHERE p.estoqueDescontado = true")
+    TotaisFinanceirosDTO somarTotaisFinanceiros();
+
+    // Marca a produção como estornada somente se o estoque ainda estiver descontado
+    @Modifying
+    @Query("UPDATE Producao p SET p.estoqueDescontado = false WHERE p.id = :id AND p.estoqueDescontado = true")
+    int marcarEstornada(@Param("id") Long id);
+
+    @Query("SELECT r FROM ProducaoResultado r LEFT JOIN FETCH r.produto WHERE r.producao.id = :producaoId")
+    List<ProducaoResultado> findResultadosComProdutos(@Param("producaoId") Long producaoId);
+
+    // Página do histórico por keyset (data, id), do mais recente para o mais antigo
+    @Query("SELECT new CodingTechnology.SistemaDeGestao.producao.DTO.ProducaoHistoricoDTO("
+            + "p.id, p.dataProducao, r.nome, p.quantidadeLotes, p.custoTotal, p.lucroEstimado) "
+            + "FROM Producao p JOIN p.receita r "
+            + "WHERE (:receitaId IS NULL OR p.receita.id = :receitaId) "
+            + "AND (:dataInicio IS NULL OR p.dataProducao >= :dataInicio) "
+            + "AND (:dataFim IS NULL OR p.dataProducao <= :dataFim) "
+            + "AND (:cursorData IS NULL OR p.dataProducao < :cursorData "
+            + "OR (p.dataProducao = :cursorData AND p.id < :cursorId)) "
+            + "ORDER BY p.dataProducao DESC, p.id DESC")
+    List<ProducaoHistoricoDTO> findHistorico(@Param("receitaId") Long receitaId,
+            @Param("dataInicio") LocalDateTime dataInicio,
+            @Param("dataFim") LocalDateTime dataFim,
+            @Param("cursorData") LocalDateTime cursorData,
+            @Param("cursorId") Long cursorId,
+            Limit limit);
 }
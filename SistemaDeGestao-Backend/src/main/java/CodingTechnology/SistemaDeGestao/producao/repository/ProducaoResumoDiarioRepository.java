@@ -0,0 +1,47 @@
+package CodingTechnology.SistemaDeGestao.producao.repository;
+
+import CodingTechnology.SistemaDeGestao.producao.DTO.ResumoProducaoPeriodoDTO;
+import CodingTechnology.SistemaDeGestao.producao.model.entities.ProducaoResumoDiario;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ProducaoResumoDiarioRepository extends JpaRepository<ProducaoResumoDiario, Long> {
+
+    // Soma os valores ao resumo do dia/receita, criando a linha se ainda não existir
+    @Modifying
+    @Query(value = "INSERT INTO producao_resumo_diario "
+            + "(dia, receita_id, quantidade_producoes, quantidade_lotes, quantidade_produzida, custo_total, lucro_estimado) "
+            + "VALUES (:dia, :receitaId, :producoes, :lotes, :quantidadeProduzida, :custoTotal, :lucroEstimado) "
+            + "ON DUPLICATE KEY UPDATE "
+            + "quantidade_producoes = quantidade_producoes + VALUES(quantidade_producoes), "
+            + "quantidade_lotes = quantidade_lotes + VALUES(quantidade_lotes), "
+            + "quantidade_produzida = quantidade_produzida + VALUES(quantidade_produzida), "
+            + "custo_total = custo_total + VALUES(custo_total), "
+            + "lucro_estimado = lucro_estimado + VALUES(lucro_estimado)", nativeQuery = true)
+    void acumular(@Param("dia") LocalDate dia,
+            @Param("receitaId") Long receitaId,
+            @Param("producoes") long producoes,
+            @Param("lotes") long lotes,
+            @Param("quantidadeProduzida") long quantidadeProduzida,
+            @Param("custoTotal") double custoTotal,
+            @Param("lucroEstimado") double lucroEstimado);
+
+    @Query("SELECT new CodingTechnology.SistemaDeGestao.producao.DTO.ResumoProducaoPeriodoDTO("
+            + "r.receitaId, rec.nome, SUM(r.quantidadeProducoes), SUM(r.quantidadeLotes), "
+            + "SUM(r.quantidadeProduzida), SUM(r.custoTotal), SUM(r.lucroEstimado)) "
+            + "FROM ProducaoResumoDiario r JOIN Receita rec ON rec.id = r.receitaId "
+            + "WHERE r.dia BETWEEN :dataInicio AND :dataFim "
+            + "AND (:receitaId IS NULL OR r.receitaId = :receitaId) "
+            + "GROUP BY r.receitaId, rec.nome "
+            + "ORDER BY rec.nome")
+    List<ResumoProducaoPeriodoDTO> somarPorReceita(@Param("dataInicio") LocalDate dataInicio,
+            @Param("dataFim") LocalDate dataFim,
+            @Param("receitaId") Long receitaId);
+}
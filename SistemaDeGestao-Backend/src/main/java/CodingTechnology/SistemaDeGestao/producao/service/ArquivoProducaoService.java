@@ -0,0 +1,503 @@
+package CodingTechnology.SistemaDeGestao.producao.service;
+
+import CodingTechnology.SistemaDeGestao.Produtos.model.enums.UnidadeMedida;
+import CodingTechnology.SistemaDeGestao.producao.DTO.ProducaoArquivadaDTO;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+@Service
+public class ArquivoProducaoService {
+
+    private static final Logger log = LoggerFactory.getLogger(ArquivoProducaoService.class);
+
+    private static final UnidadeMedida[] UNIDADES = UnidadeMedida.values();
+    private static final int TAMANHO_LOTE_EXCLUSAO = 1000;
+    private static final int LIMITE_MAXIMO_CONSULTA = 10000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean habilitado;
+    private final Path diretorio;
+    private final int horizonteDias;
+    private final int tamanhoSegmento;
+
+    // Índice em memória dos segmentos, ordenado pela data mínima; substituído por inteiro a cada alteração
+    private volatile List<EntradaIndice> indice = List.of();
+
+    // Totais de todos os segmentos do índice, recalculados a cada publicação
+    private volatile TotaisArquivados totaisArquivados = TotaisArquivados.VAZIO;
+
+    // A troca "exclui linhas + publica segmento" é exclusiva; consultas que somam tabela e arquivo
+    // usam a leitura, para nunca verem as linhas nos dois lugares ou em nenhum
+    private final ReadWriteLock trocaSegmento = new ReentrantReadWriteLock();
+
+    private final AtomicBoolean emExecucao = new AtomicBoolean(false);
+
+    public ArquivoProducaoService(JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${application.producao.arquivo.habilitado:false}") boolean habilitado,
+            @Value("${application.producao.arquivo.diretorio:}") String diretorio,
+            @Value("${application.producao.arquivo.horizonte-dias:365}") int horizonteDias,
+            @Value("${application.producao.arquivo.tamanho-segmento:10000}") int tamanhoSegmento) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.habilitado = habilitado;
+        this.diretorio = diretorio.isBlank() ? null : Paths.get(diretorio);
+        this.horizonteDias = horizonteDias;
+        this.tamanhoSegmento = tamanhoSegmento;
+
+        // O arquivo é a única cópia do histórico removido do banco: nada de caminhos relativos ao diretório de trabalho
+        if (this.diretorio != null && !this.diretorio.isAbsolute()) {
+            throw new IllegalStateException(
+                    "application.producao.arquivo.diretorio deve ser um caminho absoluto: " + diretorio);
+        }
+        if (habilitado && this.diretorio == null) {
+            throw new IllegalStateException("Arquivamento de produções habilitado sem "
+                    + "application.producao.arquivo.diretorio: informe um diretório absoluto em volume persistente.");
+        }
+    }
+
+    // Monta o índice a partir dos segmentos já gravados e conclui exclusões interrompidas
+    @PostConstruct
+    public void carregarIndice() throws IOException {
+        if (diretorio == null) {
+            log.info("Arquivo de produções desabilitado: nenhum diretório configurado");
+            return;
+        }
+        Files.createDirectories(diretorio);
+
+        List<EntradaIndice> entradas = new ArrayList<>();
+        try (DirectoryStream<Path> arquivos = Files.newDirectoryStream(diretorio, "*" + SegmentoProducoes.EXTENSAO)) {
+            for (Path arquivo : arquivos) {
+                try {
+                    SegmentoProducoes.Colunas colunas = SegmentoProducoes.ler(arquivo);
+                    concluirExclusaoPendente(arquivo, colunas);
+                    entradas.add(new EntradaIndice(arquivo, SegmentoProducoes.lerCabecalho(arquivo),
+                            resumir(colunas)));
+                } catch (IOException e) {
+                    log.error("Segmento de arquivo ignorado ({}): {}", arquivo, e.getMessage());
+                }
+            }
+        }
+        publicarIndice(entradas);
+        log.info("Arquivo de produções: {} segmentos em {}", entradas.size(), diretorio);
+    }
+
+    // Um segmento só é movido para o diretório depois de sincronizado em disco; se o processo caiu antes
+    // do commit da exclusão, as linhas ainda estão nas tabelas e são removidas agora, evitando histórico duplicado
+    private void concluirExclusaoPendente(Path arquivo, SegmentoProducoes.Colunas colunas) {
+        if (colunas.quantidade == 0) {
+            return;
+        }
+        Map<Long, Long> receitaPorId = new HashMap<>(colunas.quantidade * 2);
+        long idMinimo = Long.MAX_VALUE, idMaximo = Long.MIN_VALUE;
+        for (int i = 0; i < colunas.quantidade; i++) {
+            receitaPorId.put(colunas.ids[i], colunas.receitaIds[i]);
+            idMinimo = Math.min(idMinimo, colunas.ids[i]);
+            idMaximo = Math.max(idMaximo, colunas.ids[i]);
+        }
+
+        List<Long> pendentes = new ArrayList<>();
+        jdbcTemplate.query("SELECT id, receita_id FROM producoes WHERE id >= ? AND id <= ?", rs -> {
+            long id = rs.getLong(1);
+            Long receitaId = receitaPorId.get(id);
+            if (receitaId != null && receitaId == rs.getLong(2)) {
+                pendentes.add(id);
+            }
+        }, idMinimo, idMaximo);
+
+        if (!pendentes.isEmpty()) {
+            excluir(pendentes);
+            log.warn("Segmento {}: {} produções ainda estavam nas tabelas e foram removidas", arquivo,
+                    pendentes.size());
+        }
+    }
+
+    // Tarefa agendada: move para o arquivo as produções anteriores ao horizonte
+    @Scheduled(cron = "${application.producao.arquivo.cron:0 30 3 * * *}")
+    public void arquivarAgendado() {
+        if (habilitado) {
+            arquivar();
+        }
+    }
+
+    // Arquiva em segmentos as produções de dias anteriores ao horizonte; retorna quantas foram movidas
+    public int arquivar() {
+        if (!habilitado) {
+            throw new IllegalStateException("O arquivamento de produções está desabilitado "
+                    + "(application.producao.arquivo.habilitado).");
+        }
+        if (!emExecucao.compareAndSet(false, true)) {
+            throw new IllegalStateException("O arquivamento de produções já está em execução.");
+        }
+
+        try {
+            // Corta em dia inteiro, para não dividir um dia entre tabela e arquivo
+            LocalDateTime limite = LocalDate.now().minusDays(horizonteDias).atStartOfDay();
+            int total = 0;
+
+            while (true) {
+                List<Long> ids = jdbcTemplate.queryForList(
+                        "SELECT id FROM producoes WHERE data_producao < ? ORDER BY data_producao, id LIMIT ?",
+                        Long.class, Timestamp.valueOf(limite), tamanhoSegmento);
+                if (ids.isEmpty()) {
+                    break;
+                }
+                arquivarSegmento(ids);
+                total += ids.size();
+            }
+
+            if (total > 0) {
+                log.info("Arquivamento concluído: {} produções anteriores a {} movidas para {}", total, limite,
+                        diretorio);
+            }
+            return total;
+        } finally {
+            emExecucao.set(false);
+        }
+    }
+
+    // Grava o segmento (temporário sincronizado, movido atomicamente) e só então remove as linhas das tabelas;
+    // se a remoção falhar, o segmento é descartado. Uma queda entre os dois passos é resolvida em carregarIndice.
+    private void arquivarSegmento(List<Long> ids) {
+        SegmentoProducoes.Colunas colunas = lerColunas(ids);
+        if (colunas.quantidade == 0) {
+            return;
+        }
+
+        Path destino = diretorio.resolve(String.format("producoes-%d-%d-%d%s",
+                colunas.ids[0], colunas.ids[colunas.quantidade - 1], System.currentTimeMillis(),
+                SegmentoProducoes.EXTENSAO));
+
+        try {
+            SegmentoProducoes.gravar(destino, colunas);
+        } catch (IOException e) {
+            throw new IllegalStateException("Falha ao gravar segmento de arquivo: " + e.getMessage(), e);
+        }
+
+        trocaSegmento.writeLock().lock();
+        try {
+            try {
+                excluir(ids);
+            } catch (RuntimeException e) {
+                try {
+                    Files.deleteIfExists(destino);
+                } catch (IOException ignored) {
+                    log.error("Não foi possível remover o segmento {} após falha na exclusão", destino);
+                }
+                throw e;
+            }
+
+            try {
+                List<EntradaIndice> entradas = new ArrayList<>(indice);
+                entradas.add(new EntradaIndice(destino, SegmentoProducoes.lerCabecalho(destino), resumir(colunas)));
+                publicarIndice(entradas);
+            } catch (IOException e) {
+                log.error("Segmento {} gravado, mas não foi possível indexá-lo: {}", destino, e.getMessage());
+            }
+        } finally {
+            trocaSegmento.writeLock().unlock();
+        }
+    }
+
+    // Remove as produções, seus resultados e o consumo gravado em uma única transação
+    private void excluir(List<Long> ids) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int inicio = 0; inicio < ids.size(); inicio += TAMANHO_LOTE_EXCLUSAO) {
+                List<Long> parte = ids.subList(inicio, Math.min(inicio + TAMANHO_LOTE_EXCLUSAO, ids.size()));
+                String marcadores = String.join(", ", Collections.nCopies(parte.size(), "?"));
+                jdbcTemplate.update("DELETE FROM producao_resultados WHERE producao_id IN (" + marcadores + ")",
+                        parte.toArray());
+                jdbcTemplate.update("DELETE FROM producao_consumos WHERE producao_id IN (" + marcadores + ")",
+                        parte.toArray());
+                jdbcTemplate.update("DELETE FROM producoes WHERE id IN (" + marcadores + ")", parte.toArray());
+            }
+        });
+    }
+
+    // Totais do segmento guardados no índice, para somar o arquivo às métricas sem reler os arquivos
+    private static TotaisArquivados resumir(SegmentoProducoes.Colunas colunas) {
+        long descontadas = 0;
+        double custo = 0.0, lucro = 0.0;
+        for (int i = 0; i < colunas.quantidade; i++) {
+            if (colunas.estoqueDescontado[i]) {
+                descontadas++;
+                custo += Double.isNaN(colunas.custos[i]) ? 0.0 : colunas.custos[i];
+                lucro += Double.isNaN(colunas.lucros[i]) ? 0.0 : colunas.lucros[i];
+            }
+        }
+        return new TotaisArquivados(colunas.quantidade, descontadas, custo, lucro);
+    }
+
+    // Totais das produções arquivadas. Métricas "de sempre" somam estes valores aos das tabelas.
+    // producoesDescontadas, custoTotal e lucroTotal seguem o filtro estoqueDescontado = true dos totais financeiros.
+    public record TotaisArquivados(long producoes, long producoesDescontadas, double custoTotal, double lucroTotal) {
+
+        public static final TotaisArquivados VAZIO = new TotaisArquivados(0, 0, 0.0, 0.0);
+
+        private TotaisArquivados somar(TotaisArquivados outro) {
+            return new TotaisArquivados(producoes + outro.producoes, producoesDescontadas + outro.producoesDescontadas,
+                    custoTotal + outro.custoTotal, lucroTotal + outro.lucroTotal);
+        }
+    }
+
+    // Resultado de uma consulta às tabelas junto dos totais arquivados no mesmo instante
+    public record ComArquivo<T>(T valor, TotaisArquivados arquivados) {
+    }
+
+    // Executa a consulta às tabelas sem que um segmento seja arquivado no meio dela: cada produção
+    // aparece ou no resultado da consulta ou nos totais arquivados, nunca nos dois nem em nenhum
+    public <T> ComArquivo<T> consultarComArquivo(Supplier<T> consulta) {
+        trocaSegmento.readLock().lock();
+        try {
+            return new ComArquivo<>(consulta.get(), totaisArquivados);
+        } finally {
+            trocaSegmento.readLock().unlock();
+        }
+    }
+
+    // Lê as produções e seus resultados e monta as colunas do segmento
+    private SegmentoProducoes.Colunas lerColunas(List<Long> ids) {
+        String marcadores = String.join(", ", Collections.nCopies(ids.size(), "?"));
+
+        Map<Long, List<Object[]>> resultadosPorProducao = new HashMap<>();
+        jdbcTemplate.query("SELECT producao_id, produto_id, quantidade, unidade_medida FROM producao_resultados "
+                + "WHERE producao_id IN (" + marcadores + ") ORDER BY id", rs -> {
+                    long produtoId = rs.getLong(2);
+                    Object[] linha = {
+                            rs.wasNull() ? -1L : produtoId,
+                            rs.getDouble(3),
+                            unidadeOrdinal(rs.getString(4))
+                    };
+                    resultadosPorProducao.computeIfAbsent(rs.getLong(1), k -> new ArrayList<>()).add(linha);
+                }, ids.toArray());
+
+        int quantidadeResultados = resultadosPorProducao.values().stream().mapToInt(List::size).sum();
+        SegmentoProducoes.Colunas colunas = new SegmentoProducoes.Colunas(ids.size(), quantidadeResultados);
+
+        int[] linha = { 0 };
+        jdbcTemplate.query("SELECT p.id, p.data_producao, p.receita_id, r.nome, p.quantidade_produzida, "
+                + "p.quantidade_lotes, p.custo_total, p.lucro_estimado, p.estoque_descontado, p.observacoes "
+                + "FROM producoes p JOIN receitas r ON r.id = p.receita_id "
+                + "WHERE p.id IN (" + marcadores + ") ORDER BY p.data_producao, p.id", rs -> {
+                    int i = linha[0]++;
+                    colunas.ids[i] = rs.getLong(1);
+                    colunas.datas[i] = rs.getTimestamp(2).toLocalDateTime().toInstant(ZoneOffset.UTC).toEpochMilli();
+                    colunas.receitaIds[i] = rs.getLong(3);
+                    colunas.receitaNomes[i] = rs.getString(4);
+                    colunas.quantidadesProduzidas[i] = rs.getInt(5);
+                    colunas.quantidadesLotes[i] = rs.getInt(6);
+                    double custo = rs.getDouble(7);
+                    colunas.custos[i] = rs.wasNull() ? Double.NaN : custo;
+                    double lucro = rs.getDouble(8);
+                    colunas.lucros[i] = rs.wasNull() ? Double.NaN : lucro;
+                    colunas.estoqueDescontado[i] = rs.getBoolean(9);
+                    colunas.observacoes[i] = rs.getString(10);
+                }, ids.toArray());
+
+        colunas.quantidade = linha[0];
+
+        int r = 0;
+        for (int i = 0; i < colunas.quantidade; i++) {
+            List<Object[]> resultados = resultadosPorProducao.getOrDefault(colunas.ids[i], List.of());
+            colunas.resultadosPorProducao[i] = resultados.size();
+            for (Object[] resultado : resultados) {
+                colunas.resultadoProdutoIds[r] = (Long) resultado[0];
+                colunas.resultadoQuantidades[r] = (Double) resultado[1];
+                colunas.resultadoUnidades[r] = (Byte) resultado[2];
+                r++;
+            }
+        }
+        return colunas;
+    }
+
+    // Consulta somente leitura nas produções arquivadas, mapeando os segmentos do período
+    public List<ProducaoArquivadaDTO> consultar(LocalDate dataInicio, LocalDate dataFim, Long receitaId,
+            Integer limite) {
+        if (dataInicio == null || dataFim == null) {
+            throw new IllegalArgumentException("Informe a data inicial e a data final do período.");
+        }
+        if (dataFim.isBefore(dataInicio)) {
+            throw new IllegalArgumentException("A data final não pode ser anterior à data inicial.");
+        }
+
+        int maximo = limite == null ? 1000 : Math.max(1, Math.min(limite, LIMITE_MAXIMO_CONSULTA));
+        long inicio = dataInicio.atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli();
+        long fim = dataFim.plusDays(1).atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli();
+
+        List<ProducaoArquivadaDTO> encontradas = new ArrayList<>();
+        for (EntradaIndice entrada : indice) {
+            if (entrada.cabecalho.dataMinima() >= fim) {
+                break; // Índice ordenado pela data mínima: os demais segmentos são posteriores
+            }
+            if (entrada.cabecalho.dataMaxima() < inicio) {
+                continue;
+            }
+
+            SegmentoProducoes.Colunas colunas;
+            try {
+                colunas = SegmentoProducoes.ler(entrada.arquivo);
+            } catch (IOException e) {
+                throw new IllegalStateException("Falha ao ler segmento de arquivo " + entrada.arquivo, e);
+            }
+
+            int r = 0;
+            for (int i = 0; i < colunas.quantidade; i++) {
+                int quantidadeResultados = colunas.resultadosPorProducao[i];
+                if (colunas.datas[i] >= inicio && colunas.datas[i] < fim
+                        && (receitaId == null || colunas.receitaIds[i] == receitaId)) {
+                    encontradas.add(converter(colunas, i, r));
+                }
+                r += quantidadeResultados;
+            }
+        }
+
+        return encontradas.stream()
+                .sorted(Comparator.comparing(ProducaoArquivadaDTO::getDataProducao).reversed()
+                        .thenComparing(ProducaoArquivadaDTO::getId, Comparator.reverseOrder()))
+                .limit(maximo)
+                .collect(Collectors.toList());
+    }
+
+    // Totais diários do arquivo (dia -> receita -> totais) no filtro dos resumos diários (estoque descontado):
+    // a reconstrução dos resumos soma estes valores, já que as linhas arquivadas saíram de producoes
+    public Map<LocalDate, Map<Long, ResumoDiaArquivado>> resumirPorDia() {
+        Map<LocalDate, Map<Long, ResumoDiaArquivado>> resumos = new HashMap<>();
+        for (EntradaIndice entrada : indice) {
+            SegmentoProducoes.Colunas colunas;
+            try {
+                colunas = SegmentoProducoes.ler(entrada.arquivo);
+            } catch (IOException e) {
+                throw new IllegalStateException("Falha ao ler segmento de arquivo " + entrada.arquivo, e);
+            }
+            for (int i = 0; i < colunas.quantidade; i++) {
+                if (!colunas.estoqueDescontado[i]) {
+                    continue;
+                }
+                LocalDate dia = LocalDateTime.ofInstant(Instant.ofEpochMilli(colunas.datas[i]), ZoneOffset.UTC)
+                        .toLocalDate();
+                ResumoDiaArquivado producao = new ResumoDiaArquivado(1, colunas.quantidadesLotes[i],
+                        colunas.quantidadesProduzidas[i],
+                        Double.isNaN(colunas.custos[i]) ? 0.0 : colunas.custos[i],
+                        Double.isNaN(colunas.lucros[i]) ? 0.0 : colunas.lucros[i]);
+                resumos.computeIfAbsent(dia, d -> new HashMap<>())
+                        .merge(colunas.receitaIds[i], producao, ResumoDiaArquivado::somar);
+            }
+        }
+        return resumos;
+    }
+
+    // Totais de um dia e receita nas produções arquivadas
+    public record ResumoDiaArquivado(long producoes, long lotes, long quantidadeProduzida, double custoTotal,
+            double lucroEstimado) {
+
+        private ResumoDiaArquivado somar(ResumoDiaArquivado outro) {
+            return new ResumoDiaArquivado(producoes + outro.producoes, lotes + outro.lotes,
+                    quantidadeProduzida + outro.quantidadeProduzida, custoTotal + outro.custoTotal,
+                    lucroEstimado + outro.lucroEstimado);
+        }
+    }
+
+    // Percorre todas as produções arquivadas, segmento a segmento, sem montar DTOs
+    public void percorrerArquivo(VisitanteArquivo visitante) {
+        for (EntradaIndice entrada : indice) {
+            SegmentoProducoes.Colunas colunas;
+            try {
+                colunas = SegmentoProducoes.ler(entrada.arquivo);
+            } catch (IOException e) {
+                throw new IllegalStateException("Falha ao ler segmento de arquivo " + entrada.arquivo, e);
+            }
+            for (int i = 0; i < colunas.quantidade; i++) {
+                visitante.visitar(colunas.ids[i], colunas.datas[i], colunas.receitaIds[i],
+                        colunas.quantidadesLotes[i], colunas.custos[i], colunas.lucros[i],
+                        colunas.estoqueDescontado[i]);
+            }
+        }
+    }
+
+    // Recebe cada produção arquivada; data em epoch millis (UTC) e valores nulos como NaN
+    @FunctionalInterface
+    public interface VisitanteArquivo {
+        void visitar(long id, long data, long receitaId, int quantidadeLotes, double custoTotal,
+                double lucroEstimado, boolean estoqueDescontado);
+    }
+
+    private ProducaoArquivadaDTO converter(SegmentoProducoes.Colunas colunas, int i, int primeiroResultado) {
+        List<ProducaoArquivadaDTO.Resultado> resultados = new ArrayList<>(colunas.resultadosPorProducao[i]);
+        for (int r = primeiroResultado; r < primeiroResultado + colunas.resultadosPorProducao[i]; r++) {
+            long produtoId = colunas.resultadoProdutoIds[r];
+            byte unidade = colunas.resultadoUnidades[r];
+            resultados.add(new ProducaoArquivadaDTO.Resultado(
+                    produtoId < 0 ? null : produtoId,
+                    colunas.resultadoQuantidades[r],
+                    unidade < 0 ? null : UNIDADES[unidade]));
+        }
+
+        return new ProducaoArquivadaDTO(
+                colunas.ids[i],
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(colunas.datas[i]), ZoneOffset.UTC),
+                colunas.receitaIds[i],
+                colunas.receitaNomes[i],
+                colunas.quantidadesProduzidas[i],
+                colunas.quantidadesLotes[i],
+                Double.isNaN(colunas.custos[i]) ? null : colunas.custos[i],
+                Double.isNaN(colunas.lucros[i]) ? null : colunas.lucros[i],
+                colunas.estoqueDescontado[i],
+                colunas.observacoes[i],
+                resultados);
+    }
+
+    private void publicarIndice(List<EntradaIndice> entradas) {
+        entradas.sort(Comparator.comparingLong(entrada -> entrada.cabecalho.dataMinima()));
+        TotaisArquivados totais = TotaisArquivados.VAZIO;
+        for (EntradaIndice entrada : entradas) {
+            totais = totais.somar(entrada.totais);
+        }
+        indice = List.copyOf(entradas);
+        totaisArquivados = totais;
+    }
+
+    private static byte unidadeOrdinal(String unidade) {
+        if (unidade == null) {
+            return -1;
+        }
+        try {
+            return (byte) UnidadeMedida.valueOf(unidade).ordinal();
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    private record EntradaIndice(Path arquivo, SegmentoProducoes.Cabecalho cabecalho, TotaisArquivados totais) {
+    }
+}
@@ -0,0 +1,155 @@
+package CodingTechnology.SistemaDeGestao.producao.service;
+
+import CodingTechnology.SistemaDeGestao.Produtos.model.entities.Product;
+import CodingTechnology.SistemaDeGestao.Produtos.model.enums.UnidadeMedida;
+import CodingTechnology.SistemaDeGestao.Produtos.repository.ProductRepository;
+import CodingTechnology.SistemaDeGestao.producao.DTO.CapacidadeProducaoDTO;
+import CodingTechnology.SistemaDeGestao.receita.model.entities.IngredienteDaReceita;
+import CodingTechnology.SistemaDeGestao.receita.model.entities.Receita;
+import CodingTechnology.SistemaDeGestao.receita.repository.ReceitaRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+@Service
+@RequiredArgsConstructor
+public class CapacidadeProducaoService {
+
+    private static final UnidadeMedida[] UNIDADES = UnidadeMedida.values();
+
+    // Tolerância para arredondamentos de ponto flutuante na divisão estoque / consumo
+    private static final double TOLERANCIA = 1e-9;
+
+    private final ProductRepository productRepository;
+    private final ReceitaRepository receitaRepository;
+
+    // Calcula, para cada receita, quantos lotes o estoque atual permite produzir
+    @Transactional(readOnly = true)
+    public List<CapacidadeProducaoDTO> calcularCapacidade() {
+        SnapshotEstoque estoque = new SnapshotEstoque(productRepository.findAll());
+
+        ReceitaCompacta[] compactas = receitaRepository.findAllComIngredientes().stream()
+                .sorted(Comparator.comparing(Receita::getId))
+                .map(receita -> compactar(receita, estoque))
+                .toArray(ReceitaCompacta[]::new);
+
+        return IntStream.range(0, compactas.length)
+                .parallel()
+                .mapToObj(i -> avaliar(compactas[i], estoque))
+                .toList();
+    }
+
+    // Converte os ingredientes para índices do snapshot e quantidades por lote na unidade do estoque
+    private ReceitaCompacta compactar(Receita receita, SnapshotEstoque estoque) {
+        List<IngredienteDaReceita> ingredientes = receita.getIngredientes();
+        int[] indices = new int[ingredientes.size()];
+        double[] consumoPorLote = new double[ingredientes.size()];
+
+        for (int i = 0; i < ingredientes.size(); i++) {
+            IngredienteDaReceita ingrediente = ingredientes.get(i);
+            int indice = estoque.indiceDe(ingrediente.getProduto().getId());
+            indices[i] = indice;
+            if (indice >= 0) {
+                consumoPorLote[i] = ConversorEstoque.converterParaEstoque(
+                        ingrediente.getUnidadeMedida(), UNIDADES[estoque.unidades[indice]],
+                        estoque.pesosPorUnidade[indice], ingrediente.getQuantidadeNecessaria());
+            }
+        }
+
+        return new ReceitaCompacta(receita.getId(), receita.getNome(), indices, consumoPorLote);
+    }
+
+    // Avalia uma receita somente sobre os arrays do snapshot (sem acesso ao banco)
+    private CapacidadeProducaoDTO avaliar(ReceitaCompacta receita, SnapshotEstoque estoque) {
+        if (receita.indices.length == 0) {
+            return new CapacidadeProducaoDTO(receita.id, receita.nome, 0L, null, null);
+        }
+
+        // Ingredientes repetidos do mesmo produto somam o consumo por lote
+        int[] indices = receita.indices.clone();
+        double[] consumo = receita.consumoPorLote.clone();
+        for (int i = 0; i < indices.length; i++) {
+            for (int j = i + 1; j < indices.length; j++) {
+                if (indices[j] == indices[i] && indices[i] >= 0) {
+                    consumo[i] += consumo[j];
+                    consumo[j] = 0.0;
+                }
+            }
+        }
+
+        long lotesMaximos = Long.MAX_VALUE;
+        int limitante = -1;
+
+        for (int i = 0; i < indices.length; i++) {
+            int indice = indices[i];
+            if (indice < 0) {
+                // Produto do ingrediente não existe mais: a receita não pode ser produzida
+                return new CapacidadeProducaoDTO(receita.id, receita.nome, 0L, null, null);
+            }
+            if (consumo[i] <= 0.0) {
+                continue;
+            }
+
+            long lotes = (long) Math.floor(estoque.quantidades[indice] / consumo[i] + TOLERANCIA);
+            if (lotes < lotesMaximos) {
+                lotesMaximos = lotes;
+                limitante = indice;
+            }
+        }
+
+        if (limitante < 0) {
+            return new CapacidadeProducaoDTO(receita.id, receita.nome, 0L, null, null);
+        }
+
+        return new CapacidadeProducaoDTO(receita.id, receita.nome, Math.max(lotesMaximos, 0L),
+                estoque.ids[limitante], estoque.nomes[limitante]);
+    }
+
+    // Estoque atual em arrays primitivos, ordenados por id do produto
+    private static final class SnapshotEstoque {
+        private final long[] ids;
+        private final String[] nomes;
+        private final double[] quantidades;
+        private final double[] pesosPorUnidade;
+        private final byte[] unidades;
+
+        private SnapshotEstoque(List<Product> produtos) {
+            Product[] ordenados = produtos.stream()
+                    .filter(p -> p.getId() != null && p.getUnidadeMedida() != null)
+                    .sorted(Comparator.comparing(Product::getId))
+                    .toArray(Product[]::new);
+
+            int n = ordenados.length;
+            ids = new long[n];
+            nomes = new String[n];
+            quantidades = new double[n];
+            pesosPorUnidade = new double[n];
+            unidades = new byte[n];
+
+            for (int i = 0; i < n; i++) {
+                Product produto = ordenados[i];
+                ids[i] = produto.getId();
+                nomes[i] = produto.getNome();
+                quantidades[i] = produto.getQuantidadeAtual() != null ? produto.getQuantidadeAtual() : 0.0;
+                pesosPorUnidade[i] = produto.getPesoPorUnidade() != null ? produto.getPesoPorUnidade() : 0.0;
+                unidades[i] = (byte) produto.getUnidadeMedida().ordinal();
+            }
+        }
+
+        private int indiceDe(Long produtoId) {
+            if (produtoId == null) {
+                return -1;
+            }
+            int indice = Arrays.binarySearch(ids, produtoId);
+            return indice >= 0 ? indice : -1;
+        }
+    }
+
+    private record ReceitaCompacta(Long id, String nome, int[] indices, double[] consumoPorLote) {
+    }
+}
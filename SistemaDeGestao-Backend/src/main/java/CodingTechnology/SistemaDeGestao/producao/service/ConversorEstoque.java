@@ -0,0 +1,57 @@
+package CodingTechnology.SistemaDeGestao.producao.service;
+
+import CodingTechnology.SistemaDeGestao.Produtos.model.enums.UnidadeMedida;
+
+// Regras de conversão da quantidade pedida pela receita para a unidade em que o produto é estocado
+public final class ConversorEstoque {
+
+    private ConversorEstoque() {
+    }
+
+    // Converte a quantidade da unidade do ingrediente para a unidade do produto em estoque.
+    // Entre UN e peso/volume usa o peso por unidade do produto, quando informado.
+    public static double converterParaEstoque(UnidadeMedida unidadeIngrediente, UnidadeMedida unidadeProduto,
+            Double pesoPorUnidade, double quantidade) {
+        try {
+            boolean conversionStandardPossible = true;
+
+            if (unidadeIngrediente != unidadeProduto) {
+                if (unidadeIngrediente == UnidadeMedida.UN || unidadeProduto == UnidadeMedida.UN) {
+                    conversionStandardPossible = false;
+                }
+            }
+
+            if (conversionStandardPossible) {
+                return unidadeIngrediente.converterPara(unidadeProduto, quantidade);
+            }
+
+            if (pesoPorUnidade == null || pesoPorUnidade <= 0) {
+                return unidadeIngrediente.converterPara(unidadeProduto, quantidade);
+            }
+
+            if (unidadeIngrediente == UnidadeMedida.UN) {
+                return quantidade * pesoPorUnidade;
+            } else if (unidadeProduto == UnidadeMedida.UN) {
+                return converterParaBase(unidadeIngrediente, quantidade) / pesoPorUnidade;
+            }
+            return quantidade;
+        } catch (Exception e) {
+            // Em caso de erro na conversão manual, tenta a padrão
+            return unidadeIngrediente.converterPara(unidadeProduto, quantidade);
+        }
+    }
+
+    // Helper simples para normalizar para KG ou L
+    static double converterParaBase(UnidadeMedida origem, double valor) {
+        switch (origem) {
+            case G:
+                return valor / 1000;
+            case MG:
+                return valor / 1000000;
+            case ML:
+                return valor / 1000;
+            default:
+                return valor; // Assumindo KG, L ou UN
+        }
+    }
+}
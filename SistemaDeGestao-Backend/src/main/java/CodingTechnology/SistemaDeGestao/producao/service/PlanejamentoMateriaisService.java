@@ -0,0 +1,244 @@
+package CodingTechnology.SistemaDeGestao.producao.service;
+
+import CodingTechnology.SistemaDeGestao.Produtos.model.entities.Product;
+import CodingTechnology.SistemaDeGestao.producao.DTO.ItemPlanoProducaoDTO;
+import CodingTechnology.SistemaDeGestao.producao.DTO.NecessidadeMaterialDTO;
+import CodingTechnology.SistemaDeGestao.producao.DTO.PlanoProducaoDTO;
+import CodingTechnology.SistemaDeGestao.receita.model.entities.IngredienteDaReceita;
+import CodingTechnology.SistemaDeGestao.receita.model.entities.Receita;
+import CodingTechnology.SistemaDeGestao.receita.repository.ReceitaRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.IntStream;
+
+@Service
+public class PlanejamentoMateriaisService {
+
+    // Quantidade de itens do plano abaixo da qual uma tarefa deixa de ser dividida
+    private static final int LIMITE_DIVISAO = 256;
+
+    // Tolerância para arredondamentos de ponto flutuante ao detectar a falta
+    private static final double TOLERANCIA = 1e-9;
+
+    private final ReceitaRepository receitaRepository;
+    private final int maximoDias;
+
+    public PlanejamentoMateriaisService(ReceitaRepository receitaRepository,
+            @Value("${application.producao.planejamento.max-dias:366}") int maximoDias) {
+        this.receitaRepository = receitaRepository;
+        this.maximoDias = maximoDias;
+    }
+
+    // Calcula a necessidade diária de cada produto, a curva de estoque projetada e a primeira data de falta
+    @Transactional(readOnly = true)
+    public List<NecessidadeMaterialDTO> calcularNecessidades(PlanoProducaoDTO plano) {
+        List<ItemPlanoProducaoDTO> itens = validarPlano(plano);
+
+        LocalDate primeiroDia = itens.stream().map(ItemPlanoProducaoDTO::getData).min(Comparator.naturalOrder()).get();
+        LocalDate ultimoDia = itens.stream().map(ItemPlanoProducaoDTO::getData).max(Comparator.naturalOrder()).get();
+        int dias = (int) ChronoUnit.DAYS.between(primeiroDia, ultimoDia) + 1;
+        if (dias > maximoDias) {
+            throw new IllegalArgumentException("O plano não pode ultrapassar " + maximoDias + " dias.");
+        }
+
+        TreeSet<Long> receitaIds = new TreeSet<>();
+        itens.forEach(item -> receitaIds.add(item.getReceitaId()));
+        Map<Long, Receita> receitas = new HashMap<>();
+        for (Receita receita : receitaRepository.findAllComIngredientesByIds(receitaIds)) {
+            receitas.put(receita.getId(), receita);
+        }
+        for (Long receitaId : receitaIds) {
+            if (!receitas.containsKey(receitaId)) {
+                throw new IllegalArgumentException("Receita não encontrada com ID: " + receitaId);
+            }
+        }
+
+        // Produtos consumidos pelo plano, indexados em ordem de id
+        TreeMap<Long, Product> produtosPorId = new TreeMap<>();
+        for (Receita receita : receitas.values()) {
+            for (IngredienteDaReceita ingrediente : receita.getIngredientes()) {
+                if (ingrediente.getProduto() != null && ingrediente.getProduto().getId() != null) {
+                    produtosPorId.putIfAbsent(ingrediente.getProduto().getId(), ingrediente.getProduto());
+                }
+            }
+        }
+        Product[] produtos = produtosPorId.values().toArray(Product[]::new);
+        long[] produtoIds = produtosPorId.keySet().stream().mapToLong(Long::longValue).toArray();
+        int quantidadeProdutos = produtos.length;
+
+        Map<Long, ReceitaCompacta> compactas = new HashMap<>();
+        receitas.values().forEach(receita -> compactas.put(receita.getId(), compactar(receita, produtos, produtoIds)));
+
+        // Itens agrupados por dia em arrays contíguos: os itens do dia d ficam em [inicioDia[d], inicioDia[d + 1])
+        int[] inicioDia = new int[dias + 1];
+        for (ItemPlanoProducaoDTO item : itens) {
+            inicioDia[diaDe(primeiroDia, item) + 1]++;
+        }
+        for (int d = 0; d < dias; d++) {
+            inicioDia[d + 1] += inicioDia[d];
+        }
+        int[] posicao = Arrays.copyOf(inicioDia, dias);
+        ReceitaCompacta[] receitaDoItem = new ReceitaCompacta[itens.size()];
+        double[] lotesDoItem = new double[itens.size()];
+        for (ItemPlanoProducaoDTO item : itens) {
+            int i = posicao[diaDe(primeiroDia, item)]++;
+            receitaDoItem[i] = compactas.get(item.getReceitaId());
+            lotesDoItem[i] = item.getQuantidadeLotes();
+        }
+
+        // Necessidade por dia e produto, em uma única matriz linearizada [dia * produtos + produto]
+        double[] necessidades = new double[dias * quantidadeProdutos];
+        ForkJoinPool.commonPool().invoke(new AcumularNecessidades(0, dias, inicioDia, receitaDoItem, lotesDoItem,
+                necessidades, quantidadeProdutos));
+
+        return IntStream.range(0, quantidadeProdutos)
+                .parallel()
+                .mapToObj(p -> projetarEstoque(produtos[p], p, quantidadeProdutos, dias, primeiroDia, necessidades))
+                .filter(necessidade -> necessidade.getNecessidadeTotal() > 0)
+                .sorted(Comparator.comparing(NecessidadeMaterialDTO::getPrimeiraFalta,
+                                Comparator.nullsLast(Comparator.naturalOrder()))
+                        .thenComparing(NecessidadeMaterialDTO::getProdutoId))
+                .toList();
+    }
+
+    private List<ItemPlanoProducaoDTO> validarPlano(PlanoProducaoDTO plano) {
+        if (plano == null || plano.getItens() == null || plano.getItens().isEmpty()) {
+            throw new IllegalArgumentException("O plano de produção deve ter pelo menos um item.");
+        }
+        for (ItemPlanoProducaoDTO item : plano.getItens()) {
+            if (item == null || item.getReceitaId() == null) {
+                throw new IllegalArgumentException("Todos os itens do plano devem informar a receita.");
+            }
+            if (item.getData() == null) {
+                throw new IllegalArgumentException("Todos os itens do plano devem informar a data.");
+            }
+            if (item.getQuantidadeLotes() == null || item.getQuantidadeLotes() <= 0) {
+                throw new IllegalArgumentException("A quantidade de lotes deve ser maior que zero.");
+            }
+        }
+        return plano.getItens();
+    }
+
+    // Converte os ingredientes para índices de produto e consumo por lote na unidade do estoque
+    private ReceitaCompacta compactar(Receita receita, Product[] produtos, long[] produtoIds) {
+        List<Integer> indices = new ArrayList<>();
+        List<Double> consumos = new ArrayList<>();
+
+        for (IngredienteDaReceita ingrediente : receita.getIngredientes()) {
+            if (ingrediente.getProduto() == null || ingrediente.getProduto().getId() == null) {
+                continue;
+            }
+            int indice = Arrays.binarySearch(produtoIds, ingrediente.getProduto().getId());
+            Product produto = produtos[indice];
+            double quantidade = ingrediente.getQuantidadeNecessaria() != null
+                    ? ingrediente.getQuantidadeNecessaria()
+                    : 0.0;
+            double consumo = produto.getUnidadeMedida() != null && ingrediente.getUnidadeMedida() != null
+                    ? ConversorEstoque.converterParaEstoque(ingrediente.getUnidadeMedida(),
+                            produto.getUnidadeMedida(), produto.getPesoPorUnidade(), quantidade)
+                    : quantidade;
+            indices.add(indice);
+            consumos.add(consumo);
+        }
+
+        return new ReceitaCompacta(indices.stream().mapToInt(Integer::intValue).toArray(),
+                consumos.stream().mapToDouble(Double::doubleValue).toArray());
+    }
+
+    // Percorre os dias acumulando a necessidade e registra o primeiro dia em que o estoque fica negativo
+    private NecessidadeMaterialDTO projetarEstoque(Product produto, int indice, int quantidadeProdutos, int dias,
+            LocalDate primeiroDia, double[] necessidades) {
+        double estoqueAtual = produto.getQuantidadeAtual() != null ? produto.getQuantidadeAtual() : 0.0;
+        double estoque = estoqueAtual;
+        double total = 0.0;
+        LocalDate primeiraFalta = null;
+        List<NecessidadeMaterialDTO.NecessidadeDiariaDTO> curva = new ArrayList<>();
+
+        for (int d = 0; d < dias; d++) {
+            double necessidade = necessidades[d * quantidadeProdutos + indice];
+            if (necessidade <= 0.0) {
+                continue;
+            }
+            total += necessidade;
+            estoque -= necessidade;
+            LocalDate data = primeiroDia.plusDays(d);
+            if (primeiraFalta == null && estoque < -TOLERANCIA) {
+                primeiraFalta = data;
+            }
+            curva.add(new NecessidadeMaterialDTO.NecessidadeDiariaDTO(data, necessidade, estoque));
+        }
+
+        return new NecessidadeMaterialDTO(produto.getId(), produto.getNome(), produto.getUnidadeMedida(),
+                estoqueAtual, total, estoque, primeiraFalta, curva);
+    }
+
+    private static int diaDe(LocalDate primeiroDia, ItemPlanoProducaoDTO item) {
+        return (int) ChronoUnit.DAYS.between(primeiroDia, item.getData());
+    }
+
+    // Divide o intervalo de dias ao meio; cada tarefa escreve apenas nas linhas dos seus dias
+    private static final class AcumularNecessidades extends RecursiveAction {
+        private final int diaInicio;
+        private final int diaFim;
+        private final int[] inicioDia;
+        private final ReceitaCompacta[] receitaDoItem;
+        private final double[] lotesDoItem;
+        private final double[] necessidades;
+        private final int quantidadeProdutos;
+
+        private AcumularNecessidades(int diaInicio, int diaFim, int[] inicioDia, ReceitaCompacta[] receitaDoItem,
+                double[] lotesDoItem, double[] necessidades, int quantidadeProdutos) {
+            this.diaInicio = diaInicio;
+            this.diaFim = diaFim;
+            this.inicioDia = inicioDia;
+            this.receitaDoItem = receitaDoItem;
+            this.lotesDoItem = lotesDoItem;
+            this.necessidades = necessidades;
+            this.quantidadeProdutos = quantidadeProdutos;
+        }
+
+        @Override
+        protected void compute() {
+            if (diaFim - diaInicio <= 1 || inicioDia[diaFim] - inicioDia[diaInicio] <= LIMITE_DIVISAO) {
+                acumular();
+                return;
+            }
+            int meio = (diaInicio + diaFim) >>> 1;
+            invokeAll(
+                    new AcumularNecessidades(diaInicio, meio, inicioDia, receitaDoItem, lotesDoItem, necessidades,
+                            quantidadeProdutos),
+                    new AcumularNecessidades(meio, diaFim, inicioDia, receitaDoItem, lotesDoItem, necessidades,
+                            quantidadeProdutos));
+        }
+
+        private void acumular() {
+            for (int d = diaInicio; d < diaFim; d++) {
+                int linha = d * quantidadeProdutos;
+                for (int i = inicioDia[d]; i < inicioDia[d + 1]; i++) {
+                    ReceitaCompacta receita = receitaDoItem[i];
+                    double lotes = lotesDoItem[i];
+                    for (int j = 0; j < receita.indices.length; j++) {
+                        necessidades[linha + receita.indices[j]] += lotes * receita.consumoPorLote[j];
+                    }
+                }
+            }
+        }
+    }
+
+    private record ReceitaCompacta(int[] indices, double[] consumoPorLote) {
+    }
+}
@@ -0,0 +1,329 @@
+package CodingTechnology.SistemaDeGestao.producao.service;
+
+import CodingTechnology.SistemaDeGestao.Produtos.model.entities.Product;
+import CodingTechnology.SistemaDeGestao.Produtos.repository.ProductRepository;
+import CodingTechnology.SistemaDeGestao.producao.DTO.StatusProducaoDTO;
+import CodingTechnology.SistemaDeGestao.producao.model.entities.Producao;
+import CodingTechnology.SistemaDeGestao.producao.model.entities.ProducaoResultado;
+import CodingTechnology.SistemaDeGestao.producao.model.enums.StatusProducaoAssincrona;
+import CodingTechnology.SistemaDeGestao.receita.model.entities.Receita;
+import CodingTechnology.SistemaDeGestao.receita.repository.IngredienteDaReceitaRepository;
+import CodingTechnology.SistemaDeGestao.receita.repository.ReceitaRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Fila em memória de produções aceitas com 202. Os tickets não são persistidos: produções ainda pendentes
+// ou em processamento quando a aplicação para se perdem, e o status do ticket deixa de existir.
+// Clientes que precisam de garantia de entrega devem usar /registrar com Idempotency-Key.
+@Service
+public class ProducaoAssincronaService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProducaoAssincronaService.class);
+
+    private final ProducaoService producaoService;
+    private final ReceitaRepository receitaRepository;
+    private final IngredienteDaReceitaRepository ingredienteDaReceitaRepository;
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final BlockingQueue<TicketProducao> fila;
+    private final Map<UUID, TicketProducao> tickets = new ConcurrentHashMap<>();
+    private final List<Thread> workers = new ArrayList<>();
+
+    private final int quantidadeWorkers;
+    private final int tamanhoLote;
+    private final Duration retencaoTickets;
+
+    private volatile boolean ativo = true;
+
+    public ProducaoAssincronaService(ProducaoService producaoService,
+            ReceitaRepository receitaRepository,
+            IngredienteDaReceitaRepository ingredienteDaReceitaRepository,
+            ProductRepository productRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${application.producao.async.capacidade-fila:1000}") int capacidadeFila,
+            @Value("${application.producao.async.workers:4}") int quantidadeWorkers,
+            @Value("${application.producao.async.tamanho-lote:50}") int tamanhoLote,
+            @Value("${application.producao.async.retencao-minutos:60}") long retencaoMinutos) {
+        this.producaoService = producaoService;
+        this.receitaRepository = receitaRepository;
+        this.ingredienteDaReceitaRepository = ingredienteDaReceitaRepository;
+        this.productRepository = productRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.fila = new ArrayBlockingQueue<>(capacidadeFila);
+        this.quantidadeWorkers = quantidadeWorkers;
+        this.tamanhoLote = tamanhoLote;
+        this.retencaoTickets = Duration.ofMinutes(retencaoMinutos);
+    }
+
+    // Inicia os workers em virtual threads
+    @PostConstruct
+    public void iniciar() {
+        for (int i = 0; i < quantidadeWorkers; i++) {
+            workers.add(Thread.ofVirtual()
+                    .name("producao-worker-" + i)
+                    .start(this::processarFila));
+        }
+    }
+
+    // Encerra os workers ao desligar a aplicação
+    @PreDestroy
+    public void encerrar() {
+        ativo = false;
+        workers.forEach(Thread::interrupt);
+        if (!fila.isEmpty()) {
+            log.warn("Aplicação encerrada com {} produções assíncronas ainda na fila; elas não serão registradas",
+                    fila.size());
+        }
+    }
+
+    // Valida a produção e a coloca na fila, devolvendo o ticket para consulta
+    public UUID enfileirar(Producao producao) {
+        producaoService.validarProducao(producao);
+
+        if (!receitaRepository.existsById(producao.getReceita().getId())) {
+            throw new IllegalArgumentException("Receita não encontrada com ID: " + producao.getReceita().getId());
+        }
+
+        TicketProducao ticket = new TicketProducao(UUID.randomUUID(), producao);
+        tickets.put(ticket.id, ticket);
+
+        if (!fila.offer(ticket)) {
+            tickets.remove(ticket.id);
+            throw new IllegalStateException("A fila de produções está cheia. Tente novamente em instantes.");
+        }
+
+        return ticket.id;
+    }
+
+    // Consulta o status de um ticket
+    public Optional<StatusProducaoDTO> consultarStatus(UUID ticketId) {
+        TicketProducao ticket = tickets.get(ticketId);
+        if (ticket == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new StatusProducaoDTO(ticket.id, ticket.status, ticket.producaoId, ticket.mensagem,
+                ticket.dataSolicitacao, ticket.dataConclusao));
+    }
+
+    // Laço dos workers: retira um lote da fila, agrupa e processa
+    private void processarFila() {
+        List<TicketProducao> lote = new ArrayList<>(tamanhoLote);
+
+        while (ativo) {
+            try {
+                TicketProducao primeiro = fila.poll(1, TimeUnit.SECONDS);
+                if (primeiro == null) {
+                    continue;
+                }
+
+                lote.add(primeiro);
+                fila.drainTo(lote, tamanhoLote - 1);
+                processarLote(lote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Erro inesperado no worker de produção: {}", e.getMessage(), e);
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    // Processa de uma vez o que estiver na fila; usado nos testes, com os workers desligados
+    int processarPendentes() {
+        List<TicketProducao> lote = new ArrayList<>();
+        fila.drainTo(lote);
+        processarLote(lote);
+        return lote.size();
+    }
+
+    private void processarLote(List<TicketProducao> lote) {
+        Map<Long, List<Long>> ingredientesPorReceita = carregarIngredientes(lote);
+        for (List<TicketProducao> grupo : agruparPorProdutos(lote, ingredientesPorReceita)) {
+            processarGrupo(grupo, ingredientesPorReceita);
+        }
+    }
+
+    // Produtos dos ingredientes de cada receita do lote, uma consulta por receita distinta
+    Map<Long, List<Long>> carregarIngredientes(List<TicketProducao> lote) {
+        Map<Long, List<Long>> ingredientesPorReceita = new HashMap<>();
+        for (TicketProducao ticket : lote) {
+            ingredientesPorReceita.computeIfAbsent(ticket.producao.getReceita().getId(),
+                    ingredienteDaReceitaRepository::findProdutoIdsByReceitaId);
+        }
+        return ingredientesPorReceita;
+    }
+
+    // Agrupa as produções que tocam os mesmos produtos (ingredientes ou resultados)
+    List<List<TicketProducao>> agruparPorProdutos(List<TicketProducao> lote,
+            Map<Long, List<Long>> ingredientesPorReceita) {
+        int[] pai = new int[lote.size()];
+        for (int i = 0; i < pai.length; i++) {
+            pai[i] = i;
+        }
+
+        Map<Long, Integer> primeiroPorChave = new HashMap<>();
+        for (int i = 0; i < lote.size(); i++) {
+            for (Long chave : produtosDaProducao(lote.get(i).producao, ingredientesPorReceita)) {
+                Integer anterior = primeiroPorChave.putIfAbsent(chave, i);
+                if (anterior != null) {
+                    pai[raiz(pai, i)] = raiz(pai, anterior);
+                }
+            }
+        }
+
+        Map<Integer, List<TicketProducao>> grupos = new HashMap<>();
+        for (int i = 0; i < lote.size(); i++) {
+            grupos.computeIfAbsent(raiz(pai, i), k -> new ArrayList<>()).add(lote.get(i));
+        }
+        return new ArrayList<>(grupos.values());
+    }
+
+    private static int raiz(int[] pai, int i) {
+        while (pai[i] != i) {
+            pai[i] = pai[pai[i]];
+            i = pai[i];
+        }
+        return i;
+    }
+
+    // Ids dos produtos que a produção trava: ingredientes da receita e produtos de resultado
+    private static TreeSet<Long> produtosDaProducao(Producao producao, Map<Long, List<Long>> ingredientesPorReceita) {
+        TreeSet<Long> ids = new TreeSet<>(
+                ingredientesPorReceita.getOrDefault(producao.getReceita().getId(), List.of()));
+        if (producao.getResultados() != null) {
+            for (ProducaoResultado resultado : producao.getResultados()) {
+                if (resultado.getProduto() != null && resultado.getProduto().getId() != null) {
+                    ids.add(resultado.getProduto().getId());
+                }
+            }
+        }
+        return ids;
+    }
+
+    // Processa o grupo em uma única transação; se falhar, processa cada produção isoladamente
+    private void processarGrupo(List<TicketProducao> grupo, Map<Long, List<Long>> ingredientesPorReceita) {
+        grupo.forEach(ticket -> ticket.status = StatusProducaoAssincrona.PROCESSANDO);
+
+        if (grupo.size() > 1) {
+            try {
+                List<Producao> registradas = transactionTemplate.execute(status -> {
+                    // Trava a união dos produtos do grupo de uma vez, em ordem crescente de id: cada
+                    // registrarProducao depois só reencontra travas já obtidas, sem inverter a ordem global
+                    TreeSet<Long> produtos = new TreeSet<>();
+                    for (TicketProducao ticket : grupo) {
+                        produtos.addAll(produtosDaProducao(ticket.producao, ingredientesPorReceita));
+                    }
+                    if (!produtos.isEmpty()) {
+                        productRepository.findAllByIdParaAtualizacao(produtos);
+                    }
+
+                    List<Producao> resultado = new ArrayList<>();
+                    for (TicketProducao ticket : grupo) {
+                        resultado.add(producaoService.registrarProducao(copiar(ticket.producao)));
+                    }
+                    return resultado;
+                });
+                for (int i = 0; i < grupo.size(); i++) {
+                    concluir(grupo.get(i), registradas.get(i).getId());
+                }
+                return;
+            } catch (Exception e) {
+                log.debug("Grupo de {} produções revertido, reprocessando individualmente: {}",
+                        grupo.size(), e.getMessage());
+            }
+        }
+
+        for (TicketProducao ticket : grupo) {
+            try {
+                Producao registrada = producaoService.registrarProducao(copiar(ticket.producao));
+                concluir(ticket, registrada.getId());
+            } catch (Exception e) {
+                falhar(ticket, e);
+            }
+        }
+    }
+
+    private void concluir(TicketProducao ticket, Long producaoId) {
+        ticket.producaoId = producaoId;
+        ticket.dataConclusao = LocalDateTime.now();
+        ticket.status = StatusProducaoAssincrona.CONCLUIDA;
+    }
+
+    private void falhar(TicketProducao ticket, Exception e) {
+        if (!(e instanceof IllegalArgumentException)) {
+            log.error("Erro ao processar produção do ticket {}: {}", ticket.id, e.getMessage(), e);
+        }
+        ticket.mensagem = e.getMessage();
+        ticket.dataConclusao = LocalDateTime.now();
+        ticket.status = StatusProducaoAssincrona.ERRO;
+    }
+
+    // Cria uma cópia limpa da produção, já que uma tentativa revertida deixa o objeto alterado
+    private Producao copiar(Producao original) {
+        Producao copia = Producao.builder()
+                .receita(Receita.builder().id(original.getReceita().getId()).build())
+                .quantidadeProduzida(original.getQuantidadeProduzida())
+                .quantidadeLotes(original.getQuantidadeLotes())
+                .dataProducao(original.getDataProducao())
+                .observacoes(original.getObservacoes())
+                .build();
+
+        if (original.getResultados() != null) {
+            for (ProducaoResultado resultado : original.getResultados()) {
+                Product produto = resultado.getProduto() != null
+                        ? Product.builder().id(resultado.getProduto().getId()).build()
+                        : null;
+                copia.adicionarResultado(new ProducaoResultado(produto, resultado.getQuantidade(),
+                        resultado.getUnidadeMedida(), resultado.getObservacoes()));
+            }
+        }
+        return copia;
+    }
+
+    // Agendada, e não só quando a fila esvazia: sob carga contínua a fila nunca fica ociosa
+    // e os tickets concluídos se acumulariam sem limite
+    @Scheduled(fixedDelayString = "${application.producao.async.intervalo-limpeza-ms:60000}")
+    public void removerTicketsExpirados() {
+        LocalDateTime limite = LocalDateTime.now().minus(retencaoTickets);
+        tickets.values().removeIf(ticket -> ticket.dataConclusao != null && ticket.dataConclusao.isBefore(limite));
+    }
+
+    static class TicketProducao {
+        final UUID id;
+        private final Producao producao;
+        private final LocalDateTime dataSolicitacao = LocalDateTime.now();
+        private volatile StatusProducaoAssincrona status = StatusProducaoAssincrona.PENDENTE;
+        private volatile Long producaoId;
+        private volatile String mensagem;
+        private volatile LocalDateTime dataConclusao;
+
+        TicketProducao(UUID id, Producao producao) {
+            this.id = id;
+            this.producao = producao;
+        }
+    }
+}
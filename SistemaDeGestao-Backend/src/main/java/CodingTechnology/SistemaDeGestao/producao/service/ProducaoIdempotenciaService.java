@@ -0,0 +1,193 @@
+package CodingTechnology.SistemaDeGestao.producao.service;
+
+import CodingTechnology.SistemaDeGestao.producao.model.entities.Producao;
+import CodingTechnology.SistemaDeGestao.producao.model.entities.ProducaoResultado;
+import CodingTechnology.SistemaDeGestao.producao.repository.ProducaoIdempotenciaRepository;
+import CodingTechnology.SistemaDeGestao.producao.repository.ProducaoRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class ProducaoIdempotenciaService {
+
+    private static final int TAMANHO_MAXIMO_CHAVE = 100;
+
+    private final ProducaoService producaoService;
+    private final ProducaoRepository producaoRepository;
+    private final ProducaoIdempotenciaRepository producaoIdempotenciaRepository;
+
+    // Chaves já concluídas (chave -> produção e assinatura), limitadas às mais recentes
+    private final Map<String, ChaveConcluida> chavesConcluidas;
+
+    // Execuções em andamento; requisições duplicadas aguardam a primeira
+    private final ConcurrentHashMap<String, Execucao> emExecucao = new ConcurrentHashMap<>();
+
+    public ProducaoIdempotenciaService(ProducaoService producaoService,
+            ProducaoRepository producaoRepository,
+            ProducaoIdempotenciaRepository producaoIdempotenciaRepository,
+            @Value("${application.producao.idempotencia.cache-size:10000}") int tamanhoCache) {
+        this.producaoService = producaoService;
+        this.producaoRepository = producaoRepository;
+        this.producaoIdempotenciaRepository = producaoIdempotenciaRepository;
+        this.chavesConcluidas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ChaveConcluida> eldest) {
+                return size() > tamanhoCache;
+            }
+        };
+    }
+
+    // Registra a produção uma única vez por chave; repetições devolvem a produção original.
+    // A mesma chave com um corpo diferente é recusada em vez de devolver outra produção.
+    public Producao registrar(String chave, Producao producao) {
+        validarChave(chave);
+        // Calculada antes do registro, que altera a produção recebida
+        String assinatura = assinar(producao);
+
+        Optional<Producao> existente = buscarProducaoDaChave(chave, assinatura);
+        if (existente.isPresent()) {
+            return existente.get();
+        }
+
+        Execucao execucao = new Execucao(assinatura, new CompletableFuture<>());
+        Execucao anterior = emExecucao.putIfAbsent(chave, execucao);
+        if (anterior != null) {
+            verificarAssinatura(chave, anterior.assinatura(), assinatura);
+            return aguardar(anterior.resultado());
+        }
+
+        try {
+            // Outra requisição pode ter concluído entre a primeira busca e a reserva da chave
+            Producao resultado = buscarProducaoDaChave(chave, assinatura)
+                    .orElseGet(() -> executar(chave, assinatura, producao));
+            lembrar(chave, new ChaveConcluida(resultado.getId(), assinatura));
+            execucao.resultado().complete(resultado);
+            return resultado;
+        } catch (RuntimeException e) {
+            execucao.resultado().completeExceptionally(e);
+            throw e;
+        } finally {
+            emExecucao.remove(chave, execucao);
+        }
+    }
+
+    private Producao executar(String chave, String assinatura, Producao producao) {
+        try {
+            return producaoService.registrarProducao(producao, chave, assinatura);
+        } catch (DataIntegrityViolationException e) {
+            // Outra instância gravou a mesma chave primeiro; devolve a produção dela
+            return buscarProducaoDaChave(chave, assinatura).orElseThrow(() -> e);
+        }
+    }
+
+    private Producao aguardar(CompletableFuture<Producao> execucao) {
+        try {
+            return execucao.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
+    private Optional<Producao> buscarProducaoDaChave(String chave, String assinatura) {
+        ChaveConcluida concluida;
+        synchronized (chavesConcluidas) {
+            concluida = chavesConcluidas.get(chave);
+        }
+
+        if (concluida == null) {
+            concluida = producaoIdempotenciaRepository.findByChave(chave)
+                    .map(registro -> new ChaveConcluida(registro.getProducaoId(), registro.getAssinatura()))
+                    .orElse(null);
+            if (concluida == null) {
+                return Optional.empty();
+            }
+            lembrar(chave, concluida);
+        }
+
+        verificarAssinatura(chave, concluida.assinatura(), assinatura);
+        final Long id = concluida.producaoId();
+        return Optional.of(producaoRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "A produção associada à chave de idempotência não está mais disponível. ID: " + id)));
+    }
+
+    private void lembrar(String chave, ChaveConcluida concluida) {
+        synchronized (chavesConcluidas) {
+            chavesConcluidas.put(chave, concluida);
+        }
+    }
+
+    // Registros gravados antes da assinatura existir (coluna nula) não são comparados
+    private static void verificarAssinatura(String chave, String registrada, String recebida) {
+        if (registrada != null && !registrada.equals(recebida)) {
+            throw new IllegalArgumentException(
+                    "A chave de idempotência " + chave + " já foi usada com outra requisição.");
+        }
+    }
+
+    // SHA-256 dos campos enviados pelo cliente; cada valor leva o tamanho na frente para não haver ambiguidade
+    private static String assinar(Producao producao) {
+        StringBuilder campos = new StringBuilder();
+        acrescentar(campos, producao.getReceita() != null ? producao.getReceita().getId() : null);
+        acrescentar(campos, producao.getQuantidadeLotes());
+        acrescentar(campos, producao.getQuantidadeProduzida());
+        acrescentar(campos, producao.getDataProducao());
+        acrescentar(campos, producao.getObservacoes());
+        if (producao.getResultados() != null) {
+            for (ProducaoResultado resultado : producao.getResultados()) {
+                acrescentar(campos, resultado.getProduto() != null ? resultado.getProduto().getId() : null);
+                acrescentar(campos, resultado.getQuantidade());
+                acrescentar(campos, resultado.getUnidadeMedida());
+                acrescentar(campos, resultado.getObservacoes());
+            }
+        }
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest(campos.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+
+    private static void acrescentar(StringBuilder campos, Object valor) {
+        if (valor == null) {
+            campos.append("-;");
+            return;
+        }
+        String texto = Objects.toString(valor);
+        campos.append(texto.length()).append(':').append(texto).append(';');
+    }
+
+    private void validarChave(String chave) {
+        if (chave == null || chave.isBlank()) {
+            throw new IllegalArgumentException("A chave de idempotência não pode ser vazia.");
+        }
+        if (chave.length() > TAMANHO_MAXIMO_CHAVE) {
+            throw new IllegalArgumentException(
+                    "A chave de idempotência deve ter no máximo " + TAMANHO_MAXIMO_CHAVE + " caracteres.");
+        }
+    }
+
+    private record ChaveConcluida(Long producaoId, String assinatura) {
+    }
+
+    private record Execucao(String assinatura, CompletableFuture<Producao> resultado) {
+    }
+}
@@ -0,0 +1,191 @@
+package CodingTechnology.SistemaDeGestao.producao.service;
+
+import CodingTechnology.SistemaDeGestao.consultas.service.ContadorConsultas;
+import CodingTechnology.SistemaDeGestao.producao.DTO.ResumoProducaoPeriodoDTO;
+import CodingTechnology.SistemaDeGestao.producao.model.entities.Producao;
+import CodingTechnology.SistemaDeGestao.producao.repository.ProducaoResumoDiarioRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@Service
+public class ProducaoResumoService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProducaoResumoService.class);
+
+    private final ProducaoResumoDiarioRepository resumoDiarioRepository;
+    private final ArquivoProducaoService arquivoProducaoService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int paralelismo;
+
+    public ProducaoResumoService(ProducaoResumoDiarioRepository resumoDiarioRepository,
+            ArquivoProducaoService arquivoProducaoService,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${application.producao.resumo.paralelismo:4}") int paralelismo) {
+        this.resumoDiarioRepository = resumoDiarioRepository;
+        this.arquivoProducaoService = arquivoProducaoService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.paralelismo = paralelismo;
+    }
+
+    // Soma a produção ao resumo do dia; chamado dentro da transação de registrarProducao
+    public void acumular(Producao producao) {
+        resumoDiarioRepository.acumular(
+                producao.getDataProducao().toLocalDate(),
+                producao.getReceita().getId(),
+                1,
+                valor(producao.getQuantidadeLotes()),
+                valor(producao.getQuantidadeProduzida()),
+                producao.getCustoTotal() != null ? producao.getCustoTotal() : 0.0,
+                producao.getLucroEstimado() != null ? producao.getLucroEstimado() : 0.0);
+    }
+
+    // Retira uma produção estornada do resumo do dia
+    public void subtrair(Producao producao) {
+        resumoDiarioRepository.acumular(
+                producao.getDataProducao().toLocalDate(),
+                producao.getReceita().getId(),
+                -1,
+                -valor(producao.getQuantidadeLotes()),
+                -valor(producao.getQuantidadeProduzida()),
+                producao.getCustoTotal() != null ? -producao.getCustoTotal() : 0.0,
+                producao.getLucroEstimado() != null ? -producao.getLucroEstimado() : 0.0);
+    }
+
+    // Soma os resumos diários do período, agrupados por receita
+    public List<ResumoProducaoPeriodoDTO> resumirPeriodo(LocalDate dataInicio, LocalDate dataFim, Long receitaId) {
+        if (dataInicio == null || dataFim == null) {
+            throw new IllegalArgumentException("Informe a data inicial e a data final do período.");
+        }
+        if (dataFim.isBefore(dataInicio)) {
+            throw new IllegalArgumentException("A data final não pode ser anterior à data inicial.");
+        }
+        return resumoDiarioRepository.somarPorReceita(dataInicio, dataFim, receitaId);
+    }
+
+    // Recalcula todos os resumos a partir das produções e do arquivo, um dia por transação, em paralelo.
+    // Nenhum segmento é arquivado durante a reconstrução, para que cada produção seja somada uma única vez.
+    public Map<String, Object> reconstruir() {
+        return arquivoProducaoService.consultarComArquivo(this::reconstruirTudo).valor();
+    }
+
+    private Map<String, Object> reconstruirTudo() {
+        Map<String, Object> resultado = new HashMap<>();
+        Map<LocalDate, Map<Long, ArquivoProducaoService.ResumoDiaArquivado>> arquivados =
+                arquivoProducaoService.resumirPorDia();
+
+        // Produções nas tabelas, no arquivo e resumos já gravados: dias que sobraram sem produções
+        // (estornadas ou removidas) também são reconciliados
+        LocalDate[] limites = { null, null };
+        ampliar(limites, "SELECT MIN(CAST(data_producao AS DATE)), MAX(CAST(data_producao AS DATE)) FROM producoes");
+        ampliar(limites, "SELECT MIN(dia), MAX(dia) FROM producao_resumo_diario");
+        for (LocalDate dia : arquivados.keySet()) {
+            ampliar(limites, dia, dia);
+        }
+
+        if (limites[0] == null) {
+            resultado.put("diasProcessados", 0);
+            resultado.put("linhasGeradas", 0);
+            return resultado;
+        }
+
+        LocalDate primeiroDia = limites[0];
+        LocalDate ultimoDia = limites[1];
+
+        ExecutorService executor = Executors.newFixedThreadPool(paralelismo);
+        try {
+            List<Future<Integer>> tarefas = new ArrayList<>();
+            for (LocalDate dia = primeiroDia; !dia.isAfter(ultimoDia); dia = dia.plusDays(1)) {
+                final LocalDate diaParticao = dia;
+                final Map<Long, ArquivoProducaoService.ResumoDiaArquivado> arquivadosDoDia =
+                        arquivados.getOrDefault(dia, Map.of());
+                tarefas.add(executor.submit(ContadorConsultas.propagarTarefa(
+                        () -> reconstruirDia(diaParticao, arquivadosDoDia))));
+            }
+
+            int linhas = 0;
+            for (Future<Integer> tarefa : tarefas) {
+                linhas += tarefa.get();
+            }
+
+            log.info("Resumos diários reconstruídos: {} dias, {} linhas", tarefas.size(), linhas);
+            resultado.put("diasProcessados", tarefas.size());
+            resultado.put("linhasGeradas", linhas);
+            return resultado;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Reconstrução dos resumos interrompida.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Falha ao reconstruir os resumos: " + e.getCause().getMessage(),
+                    e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void ampliar(LocalDate[] limites, String consulta) {
+        Date[] encontrados = jdbcTemplate.queryForObject(consulta,
+                (rs, rowNum) -> new Date[] { rs.getDate(1), rs.getDate(2) });
+        if (encontrados != null && encontrados[0] != null) {
+            ampliar(limites, encontrados[0].toLocalDate(), encontrados[1].toLocalDate());
+        }
+    }
+
+    private static void ampliar(LocalDate[] limites, LocalDate inicio, LocalDate fim) {
+        if (limites[0] == null || inicio.isBefore(limites[0])) {
+            limites[0] = inicio;
+        }
+        if (limites[1] == null || fim.isAfter(limites[1])) {
+            limites[1] = fim;
+        }
+    }
+
+    // Substitui os resumos de um único dia pelos totais recalculados das tabelas somados aos do arquivo
+    private int reconstruirDia(LocalDate dia, Map<Long, ArquivoProducaoService.ResumoDiaArquivado> arquivados) {
+        Integer linhas = transactionTemplate.execute(status -> {
+            jdbcTemplate.update("DELETE FROM producao_resumo_diario WHERE dia = ?", Date.valueOf(dia));
+            jdbcTemplate.update(
+                    "INSERT INTO producao_resumo_diario "
+                            + "(dia, receita_id, quantidade_producoes, quantidade_lotes, quantidade_produzida, "
+                            + "custo_total, lucro_estimado) "
+                            + "SELECT ?, receita_id, COUNT(*), COALESCE(SUM(quantidade_lotes), 0), "
+                            + "COALESCE(SUM(quantidade_produzida), 0), COALESCE(SUM(custo_total), 0), "
+                            + "COALESCE(SUM(lucro_estimado), 0) "
+                            + "FROM producoes "
+                            + "WHERE data_producao >= ? AND data_producao < ? AND estoque_descontado = TRUE "
+                            + "GROUP BY receita_id",
+                    Date.valueOf(dia),
+                    Timestamp.valueOf(dia.atStartOfDay()),
+                    Timestamp.valueOf(dia.plusDays(1).atStartOfDay()));
+            arquivados.forEach((receitaId, arquivado) -> resumoDiarioRepository.acumular(dia, receitaId,
+                    arquivado.producoes(), arquivado.lotes(), arquivado.quantidadeProduzida(),
+                    arquivado.custoTotal(), arquivado.lucroEstimado()));
+            return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM producao_resumo_diario WHERE dia = ?",
+                    Integer.class, Date.valueOf(dia));
+        });
+        return linhas != null ? linhas : 0;
+    }
+
+    private static long valor(Integer numero) {
+        return numero != null ? numero : 0L;
+    }
+}
@@ -2,71 +2,164 @@ package CodingTechnology.SistemaDeGestao.producao.service;
 
 import CodingTechnology.SistemaDeGestao.receita.model.entities.IngredienteDaReceita;
 import CodingTechnology.SistemaDeGestao.receita.model.entities.Receita;
+import CodingTechnology.SistemaDeGestao.receita.repository.IngredienteDaReceitaRepository;
 import CodingTechnology.SistemaDeGestao.receita.repository.ReceitaRepository;
 import CodingTechnology.SistemaDeGestao.Produtos.model.entities.Product;
 import CodingTechnology.SistemaDeGestao.Produtos.service.ProductService;
+import CodingTechnology.SistemaDeGestao.producao.DTO.PaginaHistoricoDTO;
+import CodingTechnology.SistemaDeGestao.producao.DTO.ProducaoHistoricoDTO;
+import CodingTechnology.SistemaDeGestao.producao.event.ProducaoEstornadaEvent;
+import CodingTechnology.SistemaDeGestao.producao.event.ProducaoRegistradaEvent;
 import CodingTechnology.SistemaDeGestao.producao.model.entities.Producao;
+import CodingTechnology.SistemaDeGestao.producao.model.entities.ProducaoConsumo;
+import CodingTechnology.SistemaDeGestao.producao.model.entities.ProducaoIdempotencia;
 import CodingTechnology.SistemaDeGestao.producao.model.entities.ProducaoResultado;
+import CodingTechnology.SistemaDeGestao.producao.repository.ProducaoConsumoRepository;
+import CodingTechnology.SistemaDeGestao.producao.repository.ProducaoIdempotenciaRepository;
 import CodingTechnology.SistemaDeGestao.producao.repository.ProducaoRepository;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Supplier;
 
+@Timed("servico.producao")
 @Service
 @RequiredArgsConstructor
 public class ProducaoService {
 
+    private static final int TAMANHO_PADRAO_PAGINA = 50;
+    private static final int TAMANHO_MAXIMO_PAGINA = 500;
+
     private final ProducaoRepository producaoRepository;
     private final ReceitaRepository receitaRepository;
+    private final IngredienteDaReceitaRepository ingredienteDaReceitaRepository;
     private final ProductService productService;
     private final CodingTechnology.SistemaDeGestao.Produtos.repository.ProductRepository productRepository;
+    private final ProducaoIdempotenciaRepository producaoIdempotenciaRepository;
+    private final ProducaoConsumoRepository producaoConsumoRepository;
+    private final ProducaoResumoService producaoResumoService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
 
     // Registra uma nova produção e desconta automaticamente o estoque
     @Transactional
     public Producao registrarProducao(Producao producao) {
-        validarProducao(producao);
+        return registrarProducao(producao, null, null);
+    }
+
+    // Registra a produção e grava a chave de idempotência (com a assinatura da requisição) na mesma transação
+    @Transactional
+    public Producao registrarProducao(Producao producao, String chaveIdempotencia, String assinaturaRequisicao) {
+        etapa("validacao", () -> validarProducao(producao));
+
+        Long receitaId = producao.getReceita().getId();
 
-        Receita receita = receitaRepository.findByIdComIngredientes(producao.getReceita().getId())
+        // Trava os produtos antes de carregar a receita, para que ela já receba as instâncias travadas
+        Map<Long, Product> produtos = etapa("carga", () -> travarProdutos(receitaId, producao.getResultados()));
+
+        Receita receita = etapa("carga", () -> receitaRepository.findByIdComIngredientes(receitaId))
                 .orElseThrow(() -> new IllegalArgumentException(
-                        "Receita não encontrada com ID: " + producao.getReceita().getId()));
+                        "Receita não encontrada com ID: " + receitaId));
 
         producao.setReceita(receita);
 
-        producao.setReceita(receita);
+        Map<Long, Double> consumo = etapa("estoque", () -> {
+            calcularCustosELucro(producao, receita, produtos);
+            Map<Long, Double> consumido = descontarEstoquePorLotes(receita, producao.getQuantidadeLotes(), produtos);
+            creditarResultados(producao, produtos);
+            return consumido;
+        });
 
-        calcularCustosELucro(producao, receita);
+        producao.setEstoqueDescontado(true);
 
-        descontarEstoquePorLotes(receita, producao.getQuantidadeLotes());
+        Producao producaoSalva = etapa("persistencia", () -> {
+            Producao salva = producaoRepository.save(producao);
+            salvarConsumo(salva.getId(), consumo);
+            return salva;
+        });
 
-        if (producao.getResultados() != null) {
-            for (ProducaoResultado resultado : producao.getResultados()) {
-                resultado.setProducao(producao); // Vínculo bidirecional
+        producaoResumoService.acumular(producaoSalva);
 
-                if (resultado.getProduto() != null && resultado.getProduto().getId() != null) {
-                    productService.adicionarEstoque(resultado.getProduto().getId(), resultado.getQuantidade());
+        eventPublisher.publishEvent(new ProducaoRegistradaEvent(producaoSalva.getId(), receitaId,
+                producaoSalva.getDataProducao(), producaoSalva.getQuantidadeLotes(), producaoSalva.getCustoTotal(),
+                producaoSalva.getLucroEstimado(), consumo));
+
+        if (chaveIdempotencia != null) {
+            producaoIdempotenciaRepository.saveAndFlush(ProducaoIdempotencia.builder()
+                    .chave(chaveIdempotencia)
+                    .assinatura(assinaturaRequisicao)
+                    .producaoId(producaoSalva.getId())
+                    .build());
+        }
+
+        return producaoSalva;
+    }
+
+    // Grava o consumo descontado na mesma transação do registro, para o estorno devolver exatamente ele
+    private void salvarConsumo(Long producaoId, Map<Long, Double> consumo) {
+        List<ProducaoConsumo> linhas = new ArrayList<>(consumo.size());
+        for (Map.Entry<Long, Double> entry : consumo.entrySet()) {
+            linhas.add(ProducaoConsumo.builder()
+                    .producaoId(producaoId)
+                    .produtoId(entry.getKey())
+                    .quantidade(entry.getValue())
+                    .build());
+        }
+        producaoConsumoRepository.saveAll(linhas);
+    }
 
-                    var prod = productService.getProductById(resultado.getProduto().getId()).orElse(null);
-                    if (prod != null)
-                        resultado.setProduto(prod);
+    // Tempo de cada etapa do registro (producao.registrar.etapa), para separar validação, leituras,
+    // cálculo de estoque e gravação dentro do timer do serviço
+    private <T> T etapa(String nome, Supplier<T> acao) {
+        return meterRegistry.timer("producao.registrar.etapa", "etapa", nome).record(acao);
+    }
+
+    private void etapa(String nome, Runnable acao) {
+        meterRegistry.timer("producao.registrar.etapa", "etapa", nome).record(acao);
+    }
+
+    // Carrega com SELECT ... FOR UPDATE, em ordem crescente de id, todos os produtos da produção
+    private Map<Long, Product> travarProdutos(Long receitaId, List<ProducaoResultado> resultados) {
+        TreeSet<Long> ids = new TreeSet<>(ingredienteDaReceitaRepository.findProdutoIdsByReceitaId(receitaId));
+
+        if (resultados != null) {
+            for (ProducaoResultado resultado : resultados) {
+                if (resultado.getProduto() != null && resultado.getProduto().getId() != null) {
+                    ids.add(resultado.getProduto().getId());
                 }
             }
         }
 
-        producao.setEstoqueDescontado(true);
+        Map<Long, Product> produtos = new HashMap<>();
+        if (ids.isEmpty()) {
+            return produtos;
+        }
 
-        return producaoRepository.save(producao);
+        for (Product produto : productRepository.findAllByIdParaAtualizacao(ids)) {
+            produtos.put(produto.getId(), produto);
+        }
+        return produtos;
     }
 
-    private void calcularCustosELucro(Producao producao, Receita receita) {
+    private void calcularCustosELucro(Producao producao, Receita receita, Map<Long, Product> produtos) {
         double custoPorLote = 0.0;
 
         for (IngredienteDaReceita ingrediente : receita.getIngredientes()) {
-            var produto = productRepository.findById(ingrediente.getProduto().getId()).orElse(null);
+            Product produto = produtos.get(ingrediente.getProduto().getId());
             if (produto != null && produto.getPrecoCompra() != null) {
                 double quantidadeConvertida = ingrediente.getUnidadeMedida()
                         .converterPara(produto.getUnidadeMedida(), ingrediente.getQuantidadeNecessaria());
@@ -80,8 +173,10 @@ public class ProducaoService {
         producao.setLucroEstimado(0.0);
     }
 
-    // Calcula as quantidades necessárias e desconta do estoque
-    private void descontarEstoquePorLotes(Receita receita, Integer quantidadeLotes) {
+    // Calcula as quantidades necessárias e desconta do estoque, sobre os produtos já travados.
+    // Retorna a quantidade descontada de cada produto, na unidade do estoque.
+    // Não depende de estado do serviço; visível no pacote para o benchmark JMH.
+    static Map<Long, Double> descontarEstoquePorLotes(Receita receita, Integer quantidadeLotes, Map<Long, Product> produtos) {
         if (quantidadeLotes == null || quantidadeLotes <= 0) {
             throw new IllegalArgumentException("A quantidade de lotes deve ser maior que zero.");
         }
@@ -90,60 +185,26 @@ public class ProducaoService {
             throw new IllegalArgumentException("A receita não possui ingredientes cadastrados.");
         }
 
+        // Ingredientes repetidos do mesmo produto somam a quantidade necessária
         Map<Long, Double> quantidadesNecessarias = new HashMap<>();
 
         for (IngredienteDaReceita ingrediente : receita.getIngredientes()) {
-            var produto = productService.getProductById(ingrediente.getProduto().getId())
-                    .orElseThrow(() -> new IllegalArgumentException(
-                            "Produto não encontrado: " + ingrediente.getProduto().getNome()));
+            Product produto = produtos.get(ingrediente.getProduto().getId());
+            if (produto == null) {
+                throw new IllegalArgumentException("Produto não encontrado: " + ingrediente.getProduto().getNome());
+            }
 
             double quantidadeNecessariaReceita = ingrediente.getQuantidadeNecessaria() * quantidadeLotes;
-            double quantidadeNecessariaEstoque;
-
-            // Lógica de Conversão Avançada
-            try {
-                boolean conversionStandardPossible = true;
-
-                if (ingrediente.getUnidadeMedida() != produto.getUnidadeMedida()) {
-                    if (ingrediente
-                            .getUnidadeMedida() == CodingTechnology.SistemaDeGestao.Produtos.model.enums.UnidadeMedida.UN
-                            || produto
-                                    .getUnidadeMedida() == CodingTechnology.SistemaDeGestao.Produtos.model.enums.UnidadeMedida.UN) {
-                        conversionStandardPossible = false;
-                    }
-                }
-
-                if (conversionStandardPossible) {
-                    quantidadeNecessariaEstoque = ingrediente.getUnidadeMedida()
-                            .converterPara(produto.getUnidadeMedida(), quantidadeNecessariaReceita);
-                } else {
-                    Double pesoUnitario = produto.getPesoPorUnidade();
-
-                    if (pesoUnitario == null || pesoUnitario <= 0) {
-                        quantidadeNecessariaEstoque = ingrediente.getUnidadeMedida()
-                                .converterPara(produto.getUnidadeMedida(), quantidadeNecessariaReceita);
-                    } else {
-                        if (ingrediente
-                                .getUnidadeMedida() == CodingTechnology.SistemaDeGestao.Produtos.model.enums.UnidadeMedida.UN) {
-                            quantidadeNecessariaEstoque = quantidadeNecessariaReceita * pesoUnitario;
-                        } else if (produto
-                                .getUnidadeMedida() == CodingTechnology.SistemaDeGestao.Produtos.model.enums.UnidadeMedida.UN) {
-                            double qtdEmKgOuL = converterParaBase(ingrediente.getUnidadeMedida(),
-                                    quantidadeNecessariaReceita);
-                            quantidadeNecessariaEstoque = qtdEmKgOuL / pesoUnitario;
-                        } else {
-                            quantidadeNecessariaEstoque = quantidadeNecessariaReceita;
-                        }
-                    }
-                }
+            double quantidadeNecessariaEstoque = ConversorEstoque.converterParaEstoque(
+                    ingrediente.getUnidadeMedida(), produto.getUnidadeMedida(), produto.getPesoPorUnidade(),
+                    quantidadeNecessariaReceita);
 
-            } catch (Exception e) {
-                // Em caso de erro na conversão manual, tenta a padrão
-                quantidadeNecessariaEstoque = ingrediente.getUnidadeMedida()
-                        .converterPara(produto.getUnidadeMedida(), quantidadeNecessariaReceita);
-            }
+            quantidadesNecessarias.merge(produto.getId(), quantidadeNecessariaEstoque, Double::sum);
+        }
 
-            quantidadesNecessarias.put(ingrediente.getProduto().getId(), quantidadeNecessariaEstoque);
+        for (Map.Entry<Long, Double> entry : quantidadesNecessarias.entrySet()) {
+            Product produto = produtos.get(entry.getKey());
+            double quantidadeNecessariaEstoque = entry.getValue();
 
             if (produto.getQuantidadeAtual() == null || produto.getQuantidadeAtual() < quantidadeNecessariaEstoque) {
                 throw new IllegalArgumentException(
@@ -156,31 +217,122 @@ public class ProducaoService {
             }
         }
 
+        // Os produtos estão gerenciados e travados: a alteração vai ao banco no flush da transação
         for (Map.Entry<Long, Double> entry : quantidadesNecessarias.entrySet()) {
-            productService.descontarEstoque(entry.getKey(), entry.getValue());
+            Product produto = produtos.get(entry.getKey());
+            produto.setQuantidadeAtual(produto.getQuantidadeAtual() - entry.getValue());
         }
+        return quantidadesNecessarias;
     }
 
-    // Helper simples para normalizar para KG ou L
-    private double converterParaBase(CodingTechnology.SistemaDeGestao.Produtos.model.enums.UnidadeMedida origem,
-            double valor) {
-        switch (origem) {
-            case G:
-                return valor / 1000;
-            case MG:
-                return valor / 1000000;
-            case ML:
-                return valor / 1000;
-            default:
-                return valor; // Assumindo KG, L ou UN
+    // Credita no estoque os produtos resultantes da produção
+    private void creditarResultados(Producao producao, Map<Long, Product> produtos) {
+        if (producao.getResultados() == null) {
+            return;
+        }
+
+        for (ProducaoResultado resultado : producao.getResultados()) {
+            resultado.setProducao(producao); // Vínculo bidirecional
+
+            if (resultado.getProduto() != null && resultado.getProduto().getId() != null) {
+                Long produtoId = resultado.getProduto().getId();
+                Product produto = produtos.get(produtoId);
+                if (produto == null) {
+                    throw new IllegalArgumentException("Produto não encontrado com ID: " + produtoId);
+                }
+                if (resultado.getQuantidade() <= 0) {
+                    throw new IllegalArgumentException("A quantidade a adicionar deve ser maior que zero.");
+                }
+
+                double quantidadeAtual = produto.getQuantidadeAtual() != null ? produto.getQuantidadeAtual() : 0.0;
+                produto.setQuantidadeAtual(quantidadeAtual + resultado.getQuantidade());
+                resultado.setProduto(produto);
+            }
         }
     }
 
+    // Estorna uma produção: devolve ao estoque exatamente o consumo gravado no registro e retira os produtos
+    // resultantes. Usa um número fixo de comandos SQL, independente do tamanho da receita.
+    @Transactional
+    public void estornarProducao(Long id) {
+        if (producaoRepository.marcarEstornada(id) == 0) {
+            throw new IllegalArgumentException(producaoRepository.existsById(id)
+                    ? "A produção já foi estornada. ID: " + id
+                    : "Produção não encontrada com ID: " + id);
+        }
+
+        Producao producao = producaoRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Produção não encontrada com ID: " + id));
+
+        List<ProducaoConsumo> consumos = producaoConsumoRepository.findByProducaoId(id);
+        if (consumos.isEmpty()) {
+            throw new IllegalArgumentException("Não é possível estornar: a produção " + id
+                    + " foi registrada sem o consumo de ingredientes gravado.");
+        }
+
+        Map<Long, Double> consumoDevolvido = new HashMap<>();
+        for (ProducaoConsumo consumo : consumos) {
+            consumoDevolvido.merge(consumo.getProdutoId(), consumo.getQuantidade(), Double::sum);
+        }
+        Map<Long, Double> variacoes = new HashMap<>(consumoDevolvido);
+        Set<Long> resultantes = new HashSet<>();
+        for (ProducaoResultado resultado : producaoRepository.findResultadosComProdutos(id)) {
+            if (resultado.getProduto() != null && resultado.getQuantidade() != null) {
+                resultantes.add(resultado.getProduto().getId());
+                variacoes.merge(resultado.getProduto().getId(), -resultado.getQuantidade(), Double::sum);
+            }
+        }
+
+        // Produto excluído e estoque insuficiente têm causas diferentes: a mensagem diz qual foi
+        Set<Long> inexistentes = new TreeSet<>(variacoes.keySet());
+        productRepository.findAllById(variacoes.keySet()).forEach(produto -> inexistentes.remove(produto.getId()));
+        if (!inexistentes.isEmpty()) {
+            Long produtoId = inexistentes.iterator().next();
+            throw new IllegalArgumentException(String.format("Não é possível estornar: o produto %s de ID %d "
+                    + "foi excluído.", resultantes.contains(produtoId) ? "resultante" : "ingrediente", produtoId));
+        }
+
+        try {
+            productService.ajustarEstoqueEmLote(variacoes);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(
+                    "Não é possível estornar: algum produto resultante já foi consumido e o estoque ficaria negativo.");
+        }
+
+        producaoResumoService.subtrair(producao);
+
+        eventPublisher.publishEvent(new ProducaoEstornadaEvent(producao.getId(), producao.getReceita().getId(),
+                producao.getDataProducao(), producao.getQuantidadeLotes(), producao.getCustoTotal(),
+                producao.getLucroEstimado(), consumoDevolvido));
+    }
+
     // Lista todas as produções ordenadas por data (mais recentes primeiro)
     public List<Producao> listarTodasProducoes() {
         return producaoRepository.findTodasOrdenadasPorData();
     }
 
+    // Busca uma página do histórico de produções a partir do cursor (data, id) da página anterior
+    public PaginaHistoricoDTO buscarHistorico(Long receitaId, LocalDateTime dataInicio, LocalDateTime dataFim,
+            LocalDateTime cursorData, Long cursorId, Integer tamanho) {
+        if ((cursorData == null) != (cursorId == null)) {
+            throw new IllegalArgumentException("Informe cursorData e cursorId juntos.");
+        }
+
+        int tamanhoPagina = tamanho == null ? TAMANHO_PADRAO_PAGINA
+                : Math.max(1, Math.min(tamanho, TAMANHO_MAXIMO_PAGINA));
+
+        List<ProducaoHistoricoDTO> itens = producaoRepository.findHistorico(receitaId, dataInicio, dataFim,
+                cursorData, cursorId, Limit.of(tamanhoPagina + 1));
+
+        if (itens.size() <= tamanhoPagina) {
+            return new PaginaHistoricoDTO(itens, null, null);
+        }
+
+        List<ProducaoHistoricoDTO> pagina = itens.subList(0, tamanhoPagina);
+        ProducaoHistoricoDTO ultimo = pagina.get(pagina.size() - 1);
+        return new PaginaHistoricoDTO(pagina, ultimo.getDataProducao(), ultimo.getId());
+    }
+
     // Busca uma produção por ID
     public Optional<Producao> buscarProducaoPorId(Long id) {
         return producaoRepository.findById(id);
@@ -192,10 +344,13 @@ public class ProducaoService {
     }
 
     // Valida os dados de uma produção
-    private void validarProducao(Producao producao) {
+    public void validarProducao(Producao producao) {
         if (producao.getReceita() == null || producao.getReceita().getId() == null) {
             throw new IllegalArgumentException("A receita é obrigatória.");
         }
+        if (producao.getQuantidadeLotes() == null || producao.getQuantidadeLotes() <= 0) {
+            throw new IllegalArgumentException("A quantidade de lotes deve ser maior que zero.");
+        }
         if (producao.getResultados() == null || producao.getResultados().isEmpty()) {
             if (producao.getQuantidadeProduzida() == null || producao.getQuantidadeProduzida() <= 0) {
                 // Se não tem resultados detalhados, exige a quantidade produzida simples
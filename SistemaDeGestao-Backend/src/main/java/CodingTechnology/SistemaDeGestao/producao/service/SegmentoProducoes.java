@@ -0,0 +1,291 @@
+package CodingTechnology.SistemaDeGestao.producao.service;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// Formato dos arquivos de produções arquivadas: cabeçalho fixo sem compressão seguido
+// de um bloco Deflate com as colunas gravadas uma após a outra
+final class SegmentoProducoes {
+
+    static final String EXTENSAO = ".seg";
+
+    private static final int MAGIC = 0x50524F44; // "PROD"
+    private static final short VERSAO = 1;
+    private static final int TAMANHO_CABECALHO = 4 + 2 + 2 + 4 + 8 * 4 + 4 + 4;
+
+    private SegmentoProducoes() {
+    }
+
+    // Metadados lidos do cabeçalho, usados no índice em memória
+    record Cabecalho(int quantidade, long dataMinima, long dataMaxima, long idMinimo, long idMaximo,
+            int tamanhoComprimido, int tamanhoOriginal) {
+    }
+
+    // Produções em formato colunar; datas em epoch millis (UTC) e nulos numéricos como NaN ou -1
+    static final class Colunas {
+        int quantidade;
+        long[] ids;
+        long[] datas;
+        long[] receitaIds;
+        String[] receitaNomes;
+        int[] quantidadesProduzidas;
+        int[] quantidadesLotes;
+        double[] custos;
+        double[] lucros;
+        boolean[] estoqueDescontado;
+        String[] observacoes;
+
+        // Resultados: quantos pertencem a cada produção, na mesma ordem das produções
+        int[] resultadosPorProducao;
+        long[] resultadoProdutoIds;
+        double[] resultadoQuantidades;
+        byte[] resultadoUnidades;
+
+        Colunas(int quantidade, int quantidadeResultados) {
+            this.quantidade = quantidade;
+            ids = new long[quantidade];
+            datas = new long[quantidade];
+            receitaIds = new long[quantidade];
+            receitaNomes = new String[quantidade];
+            quantidadesProduzidas = new int[quantidade];
+            quantidadesLotes = new int[quantidade];
+            custos = new double[quantidade];
+            lucros = new double[quantidade];
+            estoqueDescontado = new boolean[quantidade];
+            observacoes = new String[quantidade];
+            resultadosPorProducao = new int[quantidade];
+            resultadoProdutoIds = new long[quantidadeResultados];
+            resultadoQuantidades = new double[quantidadeResultados];
+            resultadoUnidades = new byte[quantidadeResultados];
+        }
+    }
+
+    // Grava o segmento em um arquivo temporário, sincroniza e o move atomicamente para o destino
+    static void gravar(Path destino, Colunas colunas) throws IOException {
+        ByteArrayOutputStream bruto = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(bruto))) {
+            int n = colunas.quantidade;
+            for (int i = 0; i < n; i++) out.writeLong(colunas.ids[i]);
+            for (int i = 0; i < n; i++) out.writeLong(colunas.datas[i]);
+            for (int i = 0; i < n; i++) out.writeLong(colunas.receitaIds[i]);
+            for (int i = 0; i < n; i++) out.writeInt(colunas.quantidadesProduzidas[i]);
+            for (int i = 0; i < n; i++) out.writeInt(colunas.quantidadesLotes[i]);
+            for (int i = 0; i < n; i++) out.writeDouble(colunas.custos[i]);
+            for (int i = 0; i < n; i++) out.writeDouble(colunas.lucros[i]);
+            for (int i = 0; i < n; i++) out.writeBoolean(colunas.estoqueDescontado[i]);
+            for (int i = 0; i < n; i++) escreverTexto(out, colunas.receitaNomes[i]);
+            for (int i = 0; i < n; i++) escreverTexto(out, colunas.observacoes[i]);
+
+            int r = colunas.resultadoProdutoIds.length;
+            out.writeInt(r);
+            for (int i = 0; i < n; i++) out.writeInt(colunas.resultadosPorProducao[i]);
+            for (int i = 0; i < r; i++) out.writeLong(colunas.resultadoProdutoIds[i]);
+            for (int i = 0; i < r; i++) out.writeDouble(colunas.resultadoQuantidades[i]);
+            out.write(colunas.resultadoUnidades, 0, r);
+        }
+
+        byte[] original = bruto.toByteArray();
+        byte[] comprimido = comprimir(original);
+
+        long dataMinima = Long.MAX_VALUE, dataMaxima = Long.MIN_VALUE;
+        long idMinimo = Long.MAX_VALUE, idMaximo = Long.MIN_VALUE;
+        for (int i = 0; i < colunas.quantidade; i++) {
+            dataMinima = Math.min(dataMinima, colunas.datas[i]);
+            dataMaxima = Math.max(dataMaxima, colunas.datas[i]);
+            idMinimo = Math.min(idMinimo, colunas.ids[i]);
+            idMaximo = Math.max(idMaximo, colunas.ids[i]);
+        }
+
+        ByteBuffer cabecalho = ByteBuffer.allocate(TAMANHO_CABECALHO);
+        cabecalho.putInt(MAGIC)
+                .putShort(VERSAO)
+                .putShort((short) 0)
+                .putInt(colunas.quantidade)
+                .putLong(dataMinima)
+                .putLong(dataMaxima)
+                .putLong(idMinimo)
+                .putLong(idMaximo)
+                .putInt(comprimido.length)
+                .putInt(original.length)
+                .flip();
+
+        Path temporario = destino.resolveSibling(destino.getFileName() + ".tmp");
+        try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (cabecalho.hasRemaining()) {
+                canal.write(cabecalho);
+            }
+            ByteBuffer corpo = ByteBuffer.wrap(comprimido);
+            while (corpo.hasRemaining()) {
+                canal.write(corpo);
+            }
+            canal.force(true);
+        }
+        Files.move(temporario, destino, StandardCopyOption.ATOMIC_MOVE);
+        sincronizarDiretorio(destino.getParent());
+    }
+
+    // Torna a renomeação durável antes que as linhas sejam excluídas do banco
+    private static void sincronizarDiretorio(Path diretorio) throws IOException {
+        // No Windows diretórios não podem ser abertos como canal; lá a renomeação atômica é o que resta
+        if (File.separatorChar == '\\') {
+            return;
+        }
+        try (FileChannel canal = FileChannel.open(diretorio, StandardOpenOption.READ)) {
+            canal.force(true);
+        }
+    }
+
+    // Lê apenas o cabeçalho do segmento
+    static Cabecalho lerCabecalho(Path arquivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            return lerCabecalho(canal.map(FileChannel.MapMode.READ_ONLY, 0, TAMANHO_CABECALHO), arquivo);
+        }
+    }
+
+    // Mapeia o segmento em memória e descomprime as colunas
+    static Colunas ler(Path arquivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            MappedByteBuffer mapa = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            Cabecalho cabecalho = lerCabecalho(mapa, arquivo);
+
+            byte[] original = descomprimir(mapa.slice(TAMANHO_CABECALHO, cabecalho.tamanhoComprimido()),
+                    cabecalho.tamanhoOriginal());
+
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(original))) {
+                int n = cabecalho.quantidade();
+                long[] ids = new long[n];
+                long[] datas = new long[n];
+                long[] receitaIds = new long[n];
+                int[] produzidas = new int[n];
+                int[] lotes = new int[n];
+                double[] custos = new double[n];
+                double[] lucros = new double[n];
+                boolean[] descontado = new boolean[n];
+                String[] nomes = new String[n];
+                String[] observacoes = new String[n];
+
+                for (int i = 0; i < n; i++) ids[i] = in.readLong();
+                for (int i = 0; i < n; i++) datas[i] = in.readLong();
+                for (int i = 0; i < n; i++) receitaIds[i] = in.readLong();
+                for (int i = 0; i < n; i++) produzidas[i] = in.readInt();
+                for (int i = 0; i < n; i++) lotes[i] = in.readInt();
+                for (int i = 0; i < n; i++) custos[i] = in.readDouble();
+                for (int i = 0; i < n; i++) lucros[i] = in.readDouble();
+                for (int i = 0; i < n; i++) descontado[i] = in.readBoolean();
+                for (int i = 0; i < n; i++) nomes[i] = lerTexto(in);
+                for (int i = 0; i < n; i++) observacoes[i] = lerTexto(in);
+
+                int r = in.readInt();
+                Colunas colunas = new Colunas(n, r);
+                colunas.ids = ids;
+                colunas.datas = datas;
+                colunas.receitaIds = receitaIds;
+                colunas.quantidadesProduzidas = produzidas;
+                colunas.quantidadesLotes = lotes;
+                colunas.custos = custos;
+                colunas.lucros = lucros;
+                colunas.estoqueDescontado = descontado;
+                colunas.receitaNomes = nomes;
+                colunas.observacoes = observacoes;
+
+                for (int i = 0; i < n; i++) colunas.resultadosPorProducao[i] = in.readInt();
+                for (int i = 0; i < r; i++) colunas.resultadoProdutoIds[i] = in.readLong();
+                for (int i = 0; i < r; i++) colunas.resultadoQuantidades[i] = in.readDouble();
+                in.readFully(colunas.resultadoUnidades, 0, r);
+                return colunas;
+            }
+        }
+    }
+
+    private static Cabecalho lerCabecalho(ByteBuffer buffer, Path arquivo) throws IOException {
+        if (buffer.getInt(0) != MAGIC || buffer.getShort(4) != VERSAO) {
+            throw new IOException("Segmento de arquivo inválido: " + arquivo);
+        }
+        return new Cabecalho(
+                buffer.getInt(8),
+                buffer.getLong(12),
+                buffer.getLong(20),
+                buffer.getLong(28),
+                buffer.getLong(36),
+                buffer.getInt(44),
+                buffer.getInt(48));
+    }
+
+    private static byte[] comprimir(byte[] original) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(original);
+            deflater.finish();
+            ByteArrayOutputStream saida = new ByteArrayOutputStream(Math.max(64, original.length / 4));
+            byte[] buffer = new byte[64 * 1024];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(buffer);
+                saida.write(buffer, 0, n);
+            }
+            return saida.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] descomprimir(ByteBuffer comprimido, int tamanhoOriginal) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(comprimido);
+            byte[] original = new byte[tamanhoOriginal];
+            int lidos = 0;
+            while (lidos < tamanhoOriginal && !inflater.finished()) {
+                int n = inflater.inflate(original, lidos, tamanhoOriginal - lidos);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                lidos += n;
+            }
+            if (lidos != tamanhoOriginal) {
+                throw new IOException("Segmento de arquivo truncado.");
+            }
+            return original;
+        } catch (DataFormatException e) {
+            throw new IOException("Segmento de arquivo corrompido: " + e.getMessage(), e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static void escreverTexto(DataOutputStream out, String texto) throws IOException {
+        if (texto == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String lerTexto(DataInputStream in) throws IOException {
+        int tamanho = in.readInt();
+        if (tamanho < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[tamanho];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
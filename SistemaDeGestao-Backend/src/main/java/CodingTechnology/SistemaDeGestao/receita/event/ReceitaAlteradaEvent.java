@@ -0,0 +1,5 @@
+package CodingTechnology.SistemaDeGestao.receita.event;
+
+// Publicado quando uma receita é criada, alterada ou excluída
+public record ReceitaAlteradaEvent(Long receitaId) {
+}
@@ -1,6 +1,8 @@
 package CodingTechnology.SistemaDeGestao.receita.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import CodingTechnology.SistemaDeGestao.receita.model.entities.IngredienteDaReceita;
@@ -13,4 +15,8 @@ public interface IngredienteDaReceitaRepository extends JpaRepository<Ingredient
     List<IngredienteDaReceita> findByReceitaId(Long receitaId);
 
     void deleteByReceitaId(Long receitaId);
+
+    // Apenas os ids dos produtos usados pela receita, sem carregar as entidades
+    @Query("SELECT i.produto.id FROM IngredienteDaReceita i WHERE i.receita.id = :receitaId")
+    List<Long> findProdutoIdsByReceitaId(@Param("receitaId") Long receitaId);
 }
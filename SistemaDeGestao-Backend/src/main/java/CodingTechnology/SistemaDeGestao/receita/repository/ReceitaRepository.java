@@ -7,6 +7,7 @@ import org.springframework.stereotype.Repository;
 
 import CodingTechnology.SistemaDeGestao.receita.model.entities.Receita;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,4 +25,7 @@ public interface ReceitaRepository extends JpaRepository<Receita, Long> {
 
     @Query("SELECT DISTINCT r FROM Receita r LEFT JOIN FETCH r.ingredientes i LEFT JOIN FETCH i.produto")
     List<Receita> findAllComIngredientes();
+
+    @Query("SELECT DISTINCT r FROM Receita r LEFT JOIN FETCH r.ingredientes i LEFT JOIN FETCH i.produto WHERE r.id IN :ids")
+    List<Receita> findAllComIngredientesByIds(@Param("ids") Collection<Long> ids);
 }
@@ -2,11 +2,14 @@ package CodingTechnology.SistemaDeGestao.receita.service;
 
 import CodingTechnology.SistemaDeGestao.Produtos.model.entities.Product;
 import CodingTechnology.SistemaDeGestao.Produtos.repository.ProductRepository;
+import CodingTechnology.SistemaDeGestao.receita.event.ReceitaAlteradaEvent;
 import CodingTechnology.SistemaDeGestao.receita.model.entities.IngredienteDaReceita;
 import CodingTechnology.SistemaDeGestao.receita.model.entities.Receita;
 import CodingTechnology.SistemaDeGestao.receita.repository.IngredienteDaReceitaRepository;
 import CodingTechnology.SistemaDeGestao.receita.repository.ReceitaRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,6 +21,7 @@ import CodingTechnology.SistemaDeGestao.receita.DTO.CalculoCustoDTO;
 import CodingTechnology.SistemaDeGestao.receita.DTO.ItemCalculoDTO;
 import CodingTechnology.SistemaDeGestao.receita.DTO.ResultadoCalculoDTO;
 
+@Timed("servico.receitas")
 @Service
 @RequiredArgsConstructor
 public class ReceitaService {
@@ -25,6 +29,7 @@ public class ReceitaService {
     private final ReceitaRepository receitaRepository;
     private final IngredienteDaReceitaRepository ingredienteDaReceitaRepository;
     private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     // Salva uma nova receita no banco de dados
     @Transactional
@@ -42,7 +47,9 @@ public class ReceitaService {
             }
         }
 
-        return receitaRepository.save(receita);
+        Receita salva = receitaRepository.save(receita);
+        eventPublisher.publishEvent(new ReceitaAlteradaEvent(salva.getId()));
+        return salva;
     }
 
     // Lista todas as receitas cadastradas
@@ -89,7 +96,9 @@ public class ReceitaService {
             }
         }
 
-        return receitaRepository.save(receitaExistente);
+        Receita salva = receitaRepository.save(receitaExistente);
+        eventPublisher.publishEvent(new ReceitaAlteradaEvent(id));
+        return salva;
     }
 
     // Exclui uma receita por ID
@@ -99,6 +108,7 @@ public class ReceitaService {
             throw new IllegalArgumentException("Receita não encontrada com ID: " + id);
         }
         receitaRepository.deleteById(id);
+        eventPublisher.publishEvent(new ReceitaAlteradaEvent(id));
     }
 
     // Valida os dados básicos de uma receita
@@ -46,6 +46,17 @@ public class UserController {
         return new ResponseEntity<>("User created successfully:", HttpStatus.CREATED);
     }
 
+    // Revoga todos os tokens emitidos para o usuário (apenas ADMIN)
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/revoke-sessions/{username}")
+    public ResponseEntity<String> revokeSessions(@PathVariable String username) {
+        if (userService.findByUsername(username).isEmpty()) {
+            return new ResponseEntity<>("User not found", HttpStatus.NOT_FOUND);
+        }
+        userService.revogarSessoes(username);
+        return new ResponseEntity<>("Sessions revoked successfully!", HttpStatus.OK);
+    }
+
     // Exclui um usuário por username (apenas ADMIN)
     @PreAuthorize("hasRole('ADMIN')")
     @DeleteMapping("/delete/{username}")
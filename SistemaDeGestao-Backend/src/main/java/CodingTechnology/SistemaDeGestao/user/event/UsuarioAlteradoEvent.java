@@ -0,0 +1,5 @@
+package CodingTechnology.SistemaDeGestao.user.event;
+
+// Publicado quando um usuário é criado, alterado ou excluído
+public record UsuarioAlteradoEvent(String username) {
+}
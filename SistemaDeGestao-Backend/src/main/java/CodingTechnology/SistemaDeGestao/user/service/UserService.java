@@ -4,9 +4,13 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import CodingTechnology.SistemaDeGestao.auth.security.UserDetailsCache;
+import CodingTechnology.SistemaDeGestao.auth.service.RevogacaoTokenService;
+import CodingTechnology.SistemaDeGestao.user.event.UsuarioAlteradoEvent;
 import CodingTechnology.SistemaDeGestao.user.model.entities.User;
 import CodingTechnology.SistemaDeGestao.user.repository.UserRepository;
 import jakarta.transaction.Transactional;
@@ -20,10 +24,33 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
-    // Salva um novo usuário com senha criptografada
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private RevogacaoTokenService revogacaoTokenService;
+
+    // Salva um usuário com senha criptografada; ao alterar um existente, revoga os tokens já emitidos
+    // (no modo de claims sem estado as permissões vêm só do token e continuariam valendo)
+    @Transactional
     public User saveUser(User user) {
+        String usernameAnterior = user.getId() == null ? null
+                : userRepository.findById(user.getId()).map(User::getUsername).orElse(null);
         user.setPassword(passwordEncoder.encode(user.getPassword()));
-        return userRepository.save(user);
+        User salvo = userRepository.save(user);
+        userDetailsCache.invalidar(salvo.getUsername());
+        if (usernameAnterior != null) {
+            revogacaoTokenService.revogarUsuario(usernameAnterior);
+            if (!usernameAnterior.equals(salvo.getUsername())) {
+                userDetailsCache.invalidar(usernameAnterior);
+                revogacaoTokenService.revogarUsuario(salvo.getUsername());
+            }
+        }
+        eventPublisher.publishEvent(new UsuarioAlteradoEvent(salvo.getUsername()));
+        return salvo;
     }
 
     // Busca um usuário por username
@@ -36,9 +63,17 @@ public class UserService {
         return userRepository.findAll();
     }
 
+    // Encerra todas as sessões do usuário, revogando os tokens já emitidos
+    public void revogarSessoes(String username) {
+        revogacaoTokenService.revogarUsuario(username);
+    }
+
     // Exclui um usuário por username
     @Transactional
     public void deleteByUsername(String username) {
         userRepository.deleteByUsername(username);
+        userDetailsCache.invalidar(username);
+        revogacaoTokenService.revogarUsuario(username);
+        eventPublisher.publishEvent(new UsuarioAlteradoEvent(username));
     }
 }
@@ -0,0 +1,123 @@
+package CodingTechnology.SistemaDeGestao.consultas;
+
+import CodingTechnology.SistemaDeGestao.GestaoApplication;
+import CodingTechnology.SistemaDeGestao.auth.security.UserDetailsCache;
+import CodingTechnology.SistemaDeGestao.consultas.config.OrcamentoConsultasProperties;
+import CodingTechnology.SistemaDeGestao.consultas.filter.ContagemConsultasFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Cada endpoint listado precisa ficar dentro do seu orçamento de comandos SQL (consultas.properties)
+// com várias receitas e ingredientes no banco: uma regressão N+1 faz a contagem crescer com os dados.
+@SpringBootTest(classes = GestaoApplication.class)
+@AutoConfigureMockMvc
+@ActiveProfiles("integracao")
+@WithMockUser(roles = "ADMIN")
+class OrcamentoConsultasIntegrationTest {
+
+	private static final int PRODUTOS = 8;
+	private static final int RECEITAS = 6;
+	private static final int INGREDIENTES_POR_RECEITA = 4;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private OrcamentoConsultasProperties orcamentos;
+
+	@Autowired
+	private UserDetailsCache userDetailsCache;
+
+	@BeforeEach
+	void popular() {
+		Integer receitas = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM receitas", Integer.class);
+		if (receitas != null && receitas >= RECEITAS) {
+			return;
+		}
+		for (int i = 1; i <= PRODUTOS; i++) {
+			jdbcTemplate.update("INSERT INTO products (nome, unidade_medida, quantidade_inicial, quantidade_atual, "
+					+ "preco_compra, preco_venda, peso_por_unidade) VALUES (?, 'KG', 100, 100, ?, ?, NULL)",
+					"Produto " + i, 2.0 * i, 3.0 * i);
+		}
+		Long primeiroProduto = jdbcTemplate.queryForObject("SELECT MIN(id) FROM products", Long.class);
+
+		Timestamp agora = Timestamp.valueOf(LocalDateTime.now());
+		for (int r = 1; r <= RECEITAS; r++) {
+			jdbcTemplate.update("INSERT INTO receitas (nome, descricao, quantidade_padrao_produzida, "
+					+ "preco_venda_sugerido, margem_lucro, em_reparticao, data_criacao, data_atualizacao) "
+					+ "VALUES (?, 'Receita do teste de orçamento', 10, 50, 50, FALSE, ?, ?)", "Receita " + r, agora, agora);
+		}
+		for (Long receitaId : jdbcTemplate.queryForList("SELECT id FROM receitas", Long.class)) {
+			for (int i = 0; i < INGREDIENTES_POR_RECEITA; i++) {
+				jdbcTemplate.update("INSERT INTO ingredientes_da_receita (receita_id, produto_id, "
+						+ "quantidade_necessaria, unidade_medida) VALUES (?, ?, 0.5, 'KG')",
+						receitaId, primeiroProduto + (receitaId + i) % PRODUTOS);
+			}
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "/api/receitas/listar", "/api/products/list", "/api/dashboard/stats" })
+	void endpointRespeitaOrcamentoDeConsultas(String uri) throws Exception {
+		MvcResult resultado = mockMvc.perform(get(uri)).andExpect(status().isOk()).andReturn();
+
+		String endpoint = ContagemConsultasFilter.endpoint(resultado.getRequest());
+		// Sem entrada própria o endpoint cairia no orçamento padrão, folgado demais para pegar um N+1
+		assertTrue(orcamentos.getOrcamentos().containsKey(endpoint),
+				endpoint + " sem orçamento próprio em consultas.properties");
+		int orcamento = orcamentos.orcamentoPara(endpoint);
+		String contagem = resultado.getResponse().getHeader(ContagemConsultasFilter.CABECALHO_CONSULTAS);
+
+		assertNotNull(contagem, "Cabeçalho " + ContagemConsultasFilter.CABECALHO_CONSULTAS + " ausente em " + endpoint);
+		assertNotNull(resultado.getResponse().getHeader(ContagemConsultasFilter.CABECALHO_TEMPOS));
+		assertTrue(Integer.parseInt(contagem) <= orcamento,
+				endpoint + " executou " + contagem + " comandos SQL (orçamento " + orcamento + ")");
+	}
+
+	// O login devolve um CompletableFuture e consulta o usuário no executor de login: a contagem
+	// precisa acompanhar o trabalho assíncrono e os cabeçalhos saem só no despacho assíncrono
+	@Test
+	void loginAssincronoContaConsultasDoExecutor() throws Exception {
+		userDetailsCache.invalidarTodos();
+
+		MvcResult inicio = mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"username\":\"UserAdmin\",\"password\":\"Master@123\"}"))
+				.andExpect(request().asyncStarted()).andReturn();
+		MvcResult resultado = mockMvc.perform(asyncDispatch(inicio)).andExpect(status().isOk()).andReturn();
+
+		String endpoint = ContagemConsultasFilter.endpoint(resultado.getRequest());
+		assertTrue(orcamentos.getOrcamentos().containsKey(endpoint),
+				endpoint + " sem orçamento próprio em consultas.properties");
+		String contagem = resultado.getResponse().getHeader(ContagemConsultasFilter.CABECALHO_CONSULTAS);
+
+		assertNotNull(contagem, "Cabeçalho " + ContagemConsultasFilter.CABECALHO_CONSULTAS + " ausente em " + endpoint);
+		assertTrue(Integer.parseInt(contagem) >= 1, "A consulta do usuário no executor de login não foi contada");
+		assertTrue(Integer.parseInt(contagem) <= orcamentos.orcamentoPara(endpoint),
+				endpoint + " executou " + contagem + " comandos SQL");
+	}
+}
@@ -0,0 +1,50 @@
+package CodingTechnology.SistemaDeGestao.producao.service;
+
+import CodingTechnology.SistemaDeGestao.producao.model.entities.Producao;
+import CodingTechnology.SistemaDeGestao.receita.model.entities.Receita;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+// Produtos, receitas e produções inseridos direto por JDBC para os testes de integração de produção
+final class DadosProducaoTeste {
+
+	private final JdbcTemplate jdbcTemplate;
+
+	DadosProducaoTeste(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	static Producao producao(long receitaId, int lotes) {
+		return Producao.builder()
+				.receita(Receita.builder().id(receitaId).build())
+				.quantidadeLotes(lotes)
+				.quantidadeProduzida(lotes * 10)
+				.build();
+	}
+
+	long produto(String nome, double quantidade) {
+		jdbcTemplate.update("INSERT INTO products (nome, unidade_medida, quantidade_inicial, quantidade_atual, "
+				+ "preco_compra, preco_venda) VALUES (?, 'KG', ?, ?, 1, 2)", nome, quantidade, quantidade);
+		return jdbcTemplate.queryForObject("SELECT MAX(id) FROM products", Long.class);
+	}
+
+	// Receita de 10 unidades por lote; ingredientes em KG, por lote
+	long receita(String nome, Map<Long, Double> ingredientes) {
+		Timestamp agora = Timestamp.valueOf(LocalDateTime.now());
+		jdbcTemplate.update("INSERT INTO receitas (nome, quantidade_padrao_produzida, em_reparticao, data_criacao, "
+				+ "data_atualizacao) VALUES (?, 10, FALSE, ?, ?)", nome, agora, agora);
+		long receitaId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM receitas", Long.class);
+		ingredientes.forEach((produtoId, quantidade) -> jdbcTemplate.update(
+				"INSERT INTO ingredientes_da_receita (receita_id, produto_id, quantidade_necessaria, unidade_medida) "
+						+ "VALUES (?, ?, ?, 'KG')", receitaId, produtoId, quantidade));
+		return receitaId;
+	}
+
+	double estoque(long produtoId) {
+		return jdbcTemplate.queryForObject("SELECT quantidade_atual FROM products WHERE id = ?", Double.class,
+				produtoId);
+	}
+}
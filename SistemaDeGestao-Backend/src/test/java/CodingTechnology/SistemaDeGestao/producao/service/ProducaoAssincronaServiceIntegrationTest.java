@@ -0,0 +1,103 @@
+package CodingTechnology.SistemaDeGestao.producao.service;
+
+import CodingTechnology.SistemaDeGestao.GestaoApplication;
+import CodingTechnology.SistemaDeGestao.producao.DTO.StatusProducaoDTO;
+import CodingTechnology.SistemaDeGestao.producao.model.enums.StatusProducaoAssincrona;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static CodingTechnology.SistemaDeGestao.producao.service.DadosProducaoTeste.producao;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Workers desligados: o teste decide quando a fila é processada, para que os tickets caiam no mesmo lote
+@SpringBootTest(classes = GestaoApplication.class, properties = {
+		"application.teste.banco=producao-async",
+		"application.producao.async.workers=0" })
+@ActiveProfiles("integracao")
+class ProducaoAssincronaServiceIntegrationTest {
+
+	@Autowired
+	private ProducaoAssincronaService producaoAssincronaService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private DadosProducaoTeste dados;
+
+	@BeforeEach
+	void preparar() {
+		dados = new DadosProducaoTeste(jdbcTemplate);
+	}
+
+	@Test
+	void agrupaProducoesQueCompartilhamIngredientes() {
+		long farinha = dados.produto("Farinha", 100);
+		long acucar = dados.produto("Açúcar", 100);
+		long sal = dados.produto("Sal", 100);
+		long pao = dados.receita("Pão", Map.of(farinha, 1.0));
+		long bolo = dados.receita("Bolo", Map.of(farinha, 1.0, acucar, 0.5));
+		long salmoura = dados.receita("Salmoura", Map.of(sal, 0.2));
+
+		ProducaoAssincronaService.TicketProducao ticketPao = ticket(pao, 1);
+		ProducaoAssincronaService.TicketProducao ticketBolo = ticket(bolo, 1);
+		ProducaoAssincronaService.TicketProducao ticketSalmoura = ticket(salmoura, 1);
+		List<ProducaoAssincronaService.TicketProducao> lote = List.of(ticketPao, ticketBolo, ticketSalmoura);
+
+		Set<Set<UUID>> grupos = producaoAssincronaService
+				.agruparPorProdutos(lote, producaoAssincronaService.carregarIngredientes(lote)).stream()
+				.map(grupo -> grupo.stream().map(ticket -> ticket.id).collect(Collectors.toSet()))
+				.collect(Collectors.toSet());
+
+		// Receitas diferentes, mas o mesmo ingrediente: mesma transação
+		assertEquals(Set.of(Set.of(ticketPao.id, ticketBolo.id), Set.of(ticketSalmoura.id)), grupos);
+	}
+
+	@Test
+	void grupoRevertidoReprocessaCadaProducaoIsoladamente() {
+		long leite = dados.produto("Leite", 10);
+		long queijo = dados.receita("Queijo", Map.of(leite, 1.0));
+
+		UUID cabe = producaoAssincronaService.enfileirar(producao(queijo, 5));
+		UUID naoCabe = producaoAssincronaService.enfileirar(producao(queijo, 8));
+		assertEquals(StatusProducaoAssincrona.PENDENTE, status(cabe).getStatus());
+
+		// 5 + 8 lotes não cabem no estoque de 10: o grupo é revertido e cada produção tenta sozinha
+		assertEquals(2, producaoAssincronaService.processarPendentes());
+
+		StatusProducaoDTO concluida = status(cabe);
+		assertEquals(StatusProducaoAssincrona.CONCLUIDA, concluida.getStatus());
+		assertNotNull(concluida.getProducaoId());
+		assertNotNull(concluida.getDataConclusao());
+
+		StatusProducaoDTO recusada = status(naoCabe);
+		assertEquals(StatusProducaoAssincrona.ERRO, recusada.getStatus());
+		assertTrue(recusada.getMensagem().startsWith("Estoque insuficiente"), recusada.getMensagem());
+
+		assertEquals(5.0, dados.estoque(leite), 1e-9);
+	}
+
+	@Test
+	void ticketDesconhecidoNaoTemStatus() {
+		assertTrue(producaoAssincronaService.consultarStatus(UUID.randomUUID()).isEmpty());
+	}
+
+	private StatusProducaoDTO status(UUID ticket) {
+		return producaoAssincronaService.consultarStatus(ticket).orElseThrow();
+	}
+
+	private static ProducaoAssincronaService.TicketProducao ticket(long receitaId, int lotes) {
+		return new ProducaoAssincronaService.TicketProducao(UUID.randomUUID(), producao(receitaId, lotes));
+	}
+}
@@ -0,0 +1,151 @@
+package CodingTechnology.SistemaDeGestao.producao.service;
+
+import CodingTechnology.SistemaDeGestao.GestaoApplication;
+import CodingTechnology.SistemaDeGestao.producao.model.entities.Producao;
+import CodingTechnology.SistemaDeGestao.producao.repository.ProducaoIdempotenciaRepository;
+import CodingTechnology.SistemaDeGestao.producao.repository.ProducaoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static CodingTechnology.SistemaDeGestao.producao.service.DadosProducaoTeste.producao;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+// Cada repetição de uma chave precisa devolver a produção original sem descontar o estoque de novo
+@SpringBootTest(classes = GestaoApplication.class, properties = "application.teste.banco=producao-idempotencia")
+@ActiveProfiles("integracao")
+class ProducaoIdempotenciaServiceIntegrationTest {
+
+	@Autowired
+	private ProducaoIdempotenciaService producaoIdempotenciaService;
+
+	@SpyBean
+	private ProducaoService producaoService;
+
+	@Autowired
+	private ProducaoRepository producaoRepository;
+
+	@Autowired
+	private ProducaoIdempotenciaRepository producaoIdempotenciaRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private DadosProducaoTeste dados;
+
+	@BeforeEach
+	void preparar() {
+		dados = new DadosProducaoTeste(jdbcTemplate);
+	}
+
+	@Test
+	void chaveConcluidaDevolveProducaoOriginal() {
+		long farinha = dados.produto("Farinha", 100);
+		long pao = dados.receita("Pão", Map.of(farinha, 1.0));
+		String chave = UUID.randomUUID().toString();
+
+		Producao original = producaoIdempotenciaService.registrar(chave, producao(pao, 2));
+		Producao repetida = producaoIdempotenciaService.registrar(chave, producao(pao, 2));
+
+		// Sem o cache em memória, a chave é encontrada na tabela
+		ProducaoIdempotenciaService semCache = new ProducaoIdempotenciaService(producaoService, producaoRepository,
+				producaoIdempotenciaRepository, 0);
+		Producao daTabela = semCache.registrar(chave, producao(pao, 2));
+
+		assertEquals(original.getId(), repetida.getId());
+		assertEquals(original.getId(), daTabela.getId());
+		verify(producaoService, times(1)).registrarProducao(any(Producao.class), eq(chave), anyString());
+		assertEquals(98.0, dados.estoque(farinha), 1e-9);
+		assertEquals(1, producoesDaReceita(pao));
+	}
+
+	@Test
+	void requisicoesSimultaneasComMesmaChaveExecutamUmaVez() throws Exception {
+		long leite = dados.produto("Leite", 100);
+		long queijo = dados.receita("Queijo", Map.of(leite, 1.0));
+		String chave = UUID.randomUUID().toString();
+
+		// Segura a primeira execução até a segunda requisição estar aguardando por ela
+		CountDownLatch emExecucao = new CountDownLatch(1);
+		CountDownLatch liberar = new CountDownLatch(1);
+		doAnswer(invocacao -> {
+			emExecucao.countDown();
+			assertTrue(liberar.await(10, TimeUnit.SECONDS));
+			return invocacao.callRealMethod();
+		}).when(producaoService).registrarProducao(any(Producao.class), eq(chave), anyString());
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<Producao> primeira = executor.submit(() -> producaoIdempotenciaService.registrar(chave,
+					producao(queijo, 3)));
+			assertTrue(emExecucao.await(10, TimeUnit.SECONDS));
+
+			CompletableFuture<Thread> threadSegunda = new CompletableFuture<>();
+			Future<Producao> segunda = executor.submit(() -> {
+				threadSegunda.complete(Thread.currentThread());
+				return producaoIdempotenciaService.registrar(chave, producao(queijo, 3));
+			});
+			aguardarBloqueio(threadSegunda.get(10, TimeUnit.SECONDS));
+			liberar.countDown();
+
+			assertEquals(primeira.get(10, TimeUnit.SECONDS).getId(), segunda.get(10, TimeUnit.SECONDS).getId());
+		} finally {
+			liberar.countDown();
+			executor.shutdownNow();
+		}
+
+		verify(producaoService, times(1)).registrarProducao(any(Producao.class), eq(chave), anyString());
+		assertEquals(97.0, dados.estoque(leite), 1e-9);
+		assertEquals(1, producoesDaReceita(queijo));
+	}
+
+	@Test
+	void chaveReutilizadaComOutroCorpoERecusada() {
+		long acucar = dados.produto("Açúcar", 100);
+		long calda = dados.receita("Calda", Map.of(acucar, 1.0));
+		String chave = UUID.randomUUID().toString();
+
+		producaoIdempotenciaService.registrar(chave, producao(calda, 1));
+
+		IllegalArgumentException erro = assertThrows(IllegalArgumentException.class,
+				() -> producaoIdempotenciaService.registrar(chave, producao(calda, 4)));
+		assertTrue(erro.getMessage().contains("já foi usada com outra requisição"), erro.getMessage());
+		assertEquals(99.0, dados.estoque(acucar), 1e-9);
+		assertEquals(1, producoesDaReceita(calda));
+	}
+
+	// A segunda requisição fica estacionada no join da execução em andamento
+	private static void aguardarBloqueio(Thread thread) throws InterruptedException {
+		long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (thread.getState() != Thread.State.WAITING && thread.getState() != Thread.State.TIMED_WAITING) {
+			assertTrue(System.nanoTime() < limite, "A segunda requisição não passou a aguardar a primeira");
+			Thread.sleep(5);
+		}
+	}
+
+	private int producoesDaReceita(long receitaId) {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM producoes WHERE receita_id = ?", Integer.class,
+				receitaId);
+	}
+}